@@ -0,0 +1,87 @@
+package com.CheckPoint.CheckPoint.Backend.Config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites a JSON frame body into the compact form: well-known field names shortened and
+ * timestamp fields sent as epoch milliseconds. It works on the token stream, so it never builds
+ * a tree, and fields it does not know pass through unchanged.
+ */
+final class CompactPayloadCodec {
+
+    // Unique within every payload that goes out over STOMP
+    static final Map<String, String> FIELD_ALIASES = Map.ofEntries(
+            Map.entry("id", "i"),
+            Map.entry("messageId", "i"),
+            Map.entry("senderId", "s"),
+            Map.entry("message", "m"),
+            Map.entry("sentAt", "t"),
+            Map.entry("createdAt", "t"),
+            Map.entry("timestamp", "t"),
+            Map.entry("seq", "q"),
+            Map.entry("sequence", "q"),
+            Map.entry("userId", "u"),
+            Map.entry("rideId", "r"),
+            Map.entry("bookingId", "b"),
+            Map.entry("userType", "ut"),
+            Map.entry("userName", "un"),
+            Map.entry("latitude", "la"),
+            Map.entry("longitude", "lo"),
+            Map.entry("type", "ty"),
+            Map.entry("title", "ti"),
+            Map.entry("read", "rd"),
+            Map.entry("actionRequired", "a"),
+            Map.entry("unreadCount", "c"),
+            Map.entry("persistedSeq", "ps"),
+            Map.entry("typing", "tp"));
+
+    static final Set<String> TIMESTAMP_FIELDS = Set.of("sentAt", "createdAt", "timestamp");
+
+    private final JsonFactory jsonFactory;
+    private final ZoneId zone;
+
+    CompactPayloadCodec(JsonFactory jsonFactory, ZoneId zone) {
+        this.jsonFactory = jsonFactory;
+        this.zone = zone;
+    }
+
+    byte[] encode(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+        try (JsonParser parser = jsonFactory.createParser(json);
+                JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            String field = null;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME) {
+                    field = parser.currentName();
+                    generator.writeFieldName(FIELD_ALIASES.getOrDefault(field, field));
+                } else if (token == JsonToken.VALUE_STRING && field != null && TIMESTAMP_FIELDS.contains(field)) {
+                    writeTimestamp(generator, parser.getText());
+                } else {
+                    generator.copyCurrentEvent(parser);
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    // Timestamps are server-local LocalDateTimes; anything that does not parse is passed through
+    private void writeTimestamp(JsonGenerator generator, String text) throws IOException {
+        try {
+            generator.writeNumber(LocalDateTime.parse(text).atZone(zone).toInstant().toEpochMilli());
+        } catch (DateTimeParseException e) {
+            generator.writeString(text);
+        }
+    }
+}
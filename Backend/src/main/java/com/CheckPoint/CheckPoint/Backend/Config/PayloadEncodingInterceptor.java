@@ -0,0 +1,110 @@
+package com.CheckPoint.CheckPoint.Backend.Config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-session payload encoding. A client opts in with a {@code payload-encoding: compact} header
+ * on CONNECT; from then on its JSON MESSAGE frames are rewritten by {@link CompactPayloadCodec}
+ * and carry {@code content-type: application/vnd.checkpoint.compact+json}. Other sessions keep
+ * plain JSON.
+ */
+@Component
+public class PayloadEncodingInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayloadEncodingInterceptor.class);
+
+    static final String ENCODING_HEADER = "payload-encoding";
+    static final String COMPACT = "compact";
+    static final MimeType COMPACT_JSON = MimeType.valueOf("application/vnd.checkpoint.compact+json");
+
+    private final CompactPayloadCodec codec;
+    private final Set<String> compactSessions = ConcurrentHashMap.newKeySet();
+
+    // A broadcast hands the same payload array to every subscriber, so it is rewritten only once
+    private final Map<byte[], byte[]> encoded = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public PayloadEncodingInterceptor(ObjectMapper objectMapper) {
+        this.codec = new CompactPayloadCodec(objectMapper.getFactory(), ZoneId.systemDefault());
+    }
+
+    // Inbound: tracks which sessions asked for the compact encoding
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId == null) {
+            return message;
+        }
+
+        if (type == SimpMessageType.CONNECT) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+            if (COMPACT.equalsIgnoreCase(accessor.getFirstNativeHeader(ENCODING_HEADER))) {
+                compactSessions.add(sessionId);
+            }
+        } else if (type == SimpMessageType.DISCONNECT) {
+            // Also sent by the STOMP handler when a connection drops without a DISCONNECT frame
+            compactSessions.remove(sessionId);
+        }
+        return message;
+    }
+
+    /**
+     * Registered on the client outbound channel: rewrites MESSAGE frames for compact sessions.
+     */
+    public ChannelInterceptor outbound() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                        || sessionId == null || !compactSessions.contains(sessionId)) {
+                    return message;
+                }
+                return toCompact(message);
+            }
+        };
+    }
+
+    private Message<?> toCompact(Message<?> message) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        MimeType contentType = accessor.getContentType();
+        if (!(message.getPayload() instanceof byte[] json)
+                || contentType == null || !MimeTypeUtils.APPLICATION_JSON.equalsTypeAndSubtype(contentType)) {
+            return message;
+        }
+
+        byte[] compact = encoded.get(json);
+        if (compact == null) {
+            try {
+                compact = codec.encode(json);
+            } catch (IOException e) {
+                logger.warn("Sending frame as plain JSON, compact encoding failed: {}", e.getMessage());
+                return message;
+            }
+            encoded.put(json, compact);
+        }
+
+        accessor.setContentType(COMPACT_JSON);
+        return MessageBuilder.createMessage(compact, accessor.getMessageHeaders());
+    }
+}
@@ -1,14 +1,18 @@
 package com.CheckPoint.CheckPoint.Backend.Config;
 
+import com.CheckPoint.CheckPoint.Backend.Security.BoundedPasswordEncoder;
 import com.CheckPoint.CheckPoint.Backend.Security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -18,8 +22,12 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor passwordHashExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${security.password.bcrypt-cost:10}") int cost,
+            @Value("${security.password.max-wait-millis:3000}") long maxWaitMillis) {
+        return new BoundedPasswordEncoder(cost, passwordHashExecutor, maxWaitMillis, meterRegistry);
     }
 
     @Bean
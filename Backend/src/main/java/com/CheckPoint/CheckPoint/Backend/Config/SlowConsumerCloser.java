@@ -0,0 +1,80 @@
+package com.CheckPoint.CheckPoint.Backend.Config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Keeps the open WebSocket sessions by id, which is also their STOMP session id, so a frame the
+ * outbound channel cannot queue closes its session instead of leaving a gap the client never
+ * learns about. The client reconnects and catches up through the replay endpoints. Installed by
+ * WebSocketConfig as the outbound channel's rejection handler.
+ */
+@Component
+public class SlowConsumerCloser implements WebSocketHandlerDecoratorFactory, RejectedExecutionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowConsumerCloser.class);
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final Counter dropped;
+
+    public SlowConsumerCloser(MeterRegistry meterRegistry) {
+        this.dropped = meterRegistry.counter("websocket.frames.dropped");
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), session);
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    // Runs on the thread that sent the frame, usually the broker's, so it never throws
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+        dropped.increment();
+        if (task instanceof MessageHandlingRunnable rejected) {
+            String sessionId = SimpMessageHeaderAccessor.getSessionId(rejected.getMessage().getHeaders());
+            if (sessionId != null) {
+                close(sessionId);
+            }
+        }
+    }
+
+    public void close(String sessionId) {
+        WebSocketSession session = sessions.remove(sessionId);
+        if (session == null) {
+            return;
+        }
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Closing slow WebSocket session {} failed: {}", sessionId, e.getMessage());
+        }
+    }
+}
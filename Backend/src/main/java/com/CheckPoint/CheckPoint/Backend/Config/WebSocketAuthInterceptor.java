@@ -1,12 +1,17 @@
 package com.CheckPoint.CheckPoint.Backend.Config;
 
+import com.CheckPoint.CheckPoint.Backend.Security.AuthenticatedUser;
 import com.CheckPoint.CheckPoint.Backend.Security.JwtUtil;
+import com.CheckPoint.CheckPoint.Backend.Service.TokenRevocationService;
+import com.CheckPoint.CheckPoint.Backend.Service.UserCache;
+import io.jsonwebtoken.Claims;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -17,16 +22,26 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final UserCache userCache;
+    private final TokenRevocationService tokenRevocationService;
 
-    public WebSocketAuthInterceptor(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public WebSocketAuthInterceptor(JwtUtil jwtUtil, UserDetailsService userDetailsService, UserCache userCache,
+            TokenRevocationService tokenRevocationService) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.userCache = userCache;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
         StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
 
+        if (accessor != null && (StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                || StompCommand.SEND.equals(accessor.getCommand()))) {
+            checkDestination(accessor.getCommand(), accessor.getDestination());
+        }
+
         if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
             String authToken = accessor.getFirstNativeHeader("Authorization");
 
@@ -34,12 +49,26 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
                 String jwt = authToken.substring(7);
 
                 try {
-                    String username = jwtUtil.extractUsername(jwt);
+                    Claims claims = jwtUtil.parseClaims(jwt);
+                    AuthenticatedUser principal = jwtUtil.toPrincipal(claims);
 
-                    if (username != null) {
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    if (tokenRevocationService.isRevoked(claims.getId())) {
+                        return message;
+                    }
 
-                        if (jwtUtil.validateToken(jwt, userDetails)) {
+                    if (principal != null) {
+                        // The session principal is the claims identity; only the version check touches the cache
+                        boolean current = userCache.getAccountState(principal.getId())
+                                .map(principal::isCurrentFor)
+                                .orElse(false);
+                        if (current) {
+                            accessor.setUser(new UsernamePasswordAuthenticationToken(
+                                    principal, null, principal.getAuthorities()));
+                        }
+                    } else if (claims.getSubject() != null) {
+                        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+
+                        if (jwtUtil.validateToken(claims, userDetails)) {
                             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                                     userDetails,
                                     null,
@@ -55,4 +84,34 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
         return message;
     }
+
+    /**
+     * The relay forwards /topic and /queue frames to the shared broker as they are, so a client
+     * could otherwise read every node's user registry and unresolved user messages, inject into
+     * them, or use a broker wildcard to subscribe to other users' queues. Throwing here stops the
+     * frame before it reaches the broker.
+     */
+    private static void checkDestination(StompCommand command, String destination) {
+        if (destination == null) {
+            return;
+        }
+        if (isBroadcastDestination(destination)) {
+            throw new AccessDeniedException("Destination is not available to clients: " + destination);
+        }
+        if (StompCommand.SUBSCRIBE.equals(command)
+                && (destination.indexOf('*') >= 0 || destination.indexOf('#') >= 0 || destination.indexOf('>') >= 0)) {
+            throw new AccessDeniedException("Wildcard subscriptions are not allowed: " + destination);
+        }
+    }
+
+    private static boolean isBroadcastDestination(String destination) {
+        for (String broadcast : new String[] { WebSocketConfig.USER_DESTINATION_BROADCAST,
+                WebSocketConfig.USER_REGISTRY_BROADCAST }) {
+            if (destination.equals(broadcast) || destination.startsWith(broadcast + "/")
+                    || destination.startsWith(broadcast + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
\ No newline at end of file
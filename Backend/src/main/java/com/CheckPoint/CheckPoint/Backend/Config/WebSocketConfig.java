@@ -1,25 +1,127 @@
 package com.CheckPoint.CheckPoint.Backend.Config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // Node-to-node traffic in relay mode; WebSocketAuthInterceptor keeps clients off both
+    static final String USER_DESTINATION_BROADCAST = "/topic/unresolved-user";
+    static final String USER_REGISTRY_BROADCAST = "/topic/simp-user-registry";
+
     private final WebSocketAuthInterceptor webSocketAuthInterceptor;
+    private final PayloadEncodingInterceptor payloadEncodingInterceptor;
+    private final SlowConsumerCloser slowConsumerCloser;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${websocket.inbound.threads:8}")
+    private int inboundThreads;
+
+    @Value("${websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.outbound.threads:8}")
+    private int outboundThreads;
+
+    @Value("${websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.broker.relay.enabled:false}")
+    private boolean relayEnabled;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Value("${websocket.broker.relay.client-login:guest}")
+    private String relayClientLogin;
+
+    @Value("${websocket.broker.relay.client-passcode:guest}")
+    private String relayClientPasscode;
+
+    @Value("${websocket.broker.relay.system-login:guest}")
+    private String relaySystemLogin;
+
+    @Value("${websocket.broker.relay.system-passcode:guest}")
+    private String relaySystemPasscode;
+
+    @Value("${websocket.heartbeat-millis:10000}")
+    private long heartbeatMillis;
+
+    @Value("${websocket.send-time-limit-millis:10000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${websocket.send-buffer-bytes:524288}")
+    private int sendBufferBytes;
 
-    public WebSocketConfig(WebSocketAuthInterceptor webSocketAuthInterceptor) {
+    @Value("${websocket.message-size-bytes:65536}")
+    private int messageSizeBytes;
+
+    @Value("${websocket.time-to-first-message-millis:30000}")
+    private int timeToFirstMessageMillis;
+
+    public WebSocketConfig(WebSocketAuthInterceptor webSocketAuthInterceptor,
+            PayloadEncodingInterceptor payloadEncodingInterceptor,
+            SlowConsumerCloser slowConsumerCloser,
+            MeterRegistry meterRegistry) {
         this.webSocketAuthInterceptor = webSocketAuthInterceptor;
+        this.payloadEncodingInterceptor = payloadEncodingInterceptor;
+        this.slowConsumerCloser = slowConsumerCloser;
+        this.meterRegistry = meterRegistry;
     }
 
+    /**
+     * One node runs the in-memory simple broker, which is also the stand-in for tests and local
+     * development. Several nodes enable the relay to a shared STOMP broker that accepts
+     * slash-separated destinations, such as ActiveMQ Artemis. In relay mode each node broadcasts
+     * its connected users, giving every node a cluster-wide user-to-node registry, so
+     * convertAndSendToUser reaches a session wherever it is connected; a user message that no
+     * node can resolve locally is broadcast for the others to deliver.
+     */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/queue", "/topic");
+        if (relayEnabled) {
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/queue", "/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayClientLogin)
+                    .setClientPasscode(relayClientPasscode)
+                    .setSystemLogin(relaySystemLogin)
+                    .setSystemPasscode(relaySystemPasscode)
+                    .setSystemHeartbeatSendInterval(heartbeatMillis)
+                    .setSystemHeartbeatReceiveInterval(heartbeatMillis)
+                    .setUserDestinationBroadcast(USER_DESTINATION_BROADCAST)
+                    .setUserRegistryBroadcast(USER_REGISTRY_BROADCAST);
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            // Heartbeats let the broker notice clients that vanished without closing the socket
+            config.enableSimpleBroker("/queue", "/topic")
+                    .setHeartbeatValue(new long[] { heartbeatMillis, heartbeatMillis })
+                    .setTaskScheduler(brokerHeartbeatScheduler());
+        }
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
@@ -28,10 +130,88 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*").withSockJS();
+        // Frames from one session reach the inbound executor one at a time, in the order they arrived
+        registry.setPreserveReceiveOrder(true);
+    }
+
+    /**
+     * Slow-consumer policy: a session whose pending frames exceed the send buffer, or whose
+     * current send has been blocked longer than the time limit, is closed with
+     * SESSION_NOT_RELIABLE and its buffered frames are discarded, so one slow client cannot pin
+     * server memory. A frame the outbound queue cannot take closes its session the same way.
+     * Closures are counted by {@link com.CheckPoint.CheckPoint.Backend.Service.PresenceRegistry}.
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMillis)
+                .setSendBufferSizeLimit(sendBufferBytes)
+                .setMessageSizeLimit(messageSizeBytes)
+                .setTimeToFirstMessage(timeToFirstMessageMillis)
+                .addDecoratorFactory(slowConsumerCloser);
     }
 
+    // A full inbound queue makes the reading thread do the work, which slows that client down.
+    // With receive order preserved, a session's next frame is only submitted once the previous one
+    // is handled, so running a frame on the caller does not overtake an earlier one in the queue
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(webSocketAuthInterceptor);
+        ThreadPoolTaskExecutor executor = channelExecutor("ws-inbound-", inboundThreads, inboundQueueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        registration.taskExecutor(executor)
+                .corePoolSize(inboundThreads)
+                .maxPoolSize(inboundThreads)
+                .queueCapacity(inboundQueueCapacity);
+        registration.interceptors(webSocketAuthInterceptor, payloadEncodingInterceptor);
+        registerQueueGauge("inbound", executor);
+    }
+
+    // A full outbound queue closes the frame's session rather than blocking the broker for every
+    // other session or leaving a silent gap in what that client receives
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        ThreadPoolTaskExecutor executor = channelExecutor("ws-outbound-", outboundThreads, outboundQueueCapacity);
+        executor.setRejectedExecutionHandler(slowConsumerCloser);
+        registration.taskExecutor(executor)
+                .corePoolSize(outboundThreads)
+                .maxPoolSize(outboundThreads)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(payloadEncodingInterceptor.outbound());
+        registerQueueGauge("outbound", executor);
+    }
+
+    @Bean
+    public ThreadPoolTaskScheduler brokerHeartbeatScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("ws-heartbeat-");
+        return scheduler;
+    }
+
+    // Initialised by Spring as the clientInbound/OutboundChannelExecutor beans
+    private static ThreadPoolTaskExecutor channelExecutor(String threadNamePrefix, int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        return executor;
+    }
+
+    private void registerQueueGauge(String channel, ThreadPoolTaskExecutor executor) {
+        Gauge.builder("websocket.channel.queued", executor, WebSocketConfig::queueDepth)
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+
+    private static double queueDepth(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            // Not initialised yet
+            return 0;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,16 @@
 package com.CheckPoint.CheckPoint.Backend.Controller;
 
 import com.CheckPoint.CheckPoint.Backend.DTO.AuthDTOs.*;
+import com.CheckPoint.CheckPoint.Backend.Exception.PasswordHashingBusyException;
 import com.CheckPoint.CheckPoint.Backend.Model.PasswordResetToken;
 import com.CheckPoint.CheckPoint.Backend.Model.User;
 import com.CheckPoint.CheckPoint.Backend.Repository.PasswordResetTokenRepository;
+import com.CheckPoint.CheckPoint.Backend.Security.AuthenticatedUser;
 import com.CheckPoint.CheckPoint.Backend.Security.JwtUtil;
 import com.CheckPoint.CheckPoint.Backend.Service.EmailService;
+import com.CheckPoint.CheckPoint.Backend.Service.TokenRevocationService;
 import com.CheckPoint.CheckPoint.Backend.Service.UserService;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +18,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
@@ -51,6 +56,9 @@ public class AuthController {
     @Autowired
     private PasswordResetTokenRepository tokenRepository;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
@@ -65,10 +73,12 @@ public class AuthController {
 
             Map<String, Object> response = new HashMap<>();
             response.put("token", jwt);
-            response.put("user", userResponse(user));
+            response.put("user", userResponse(user, user.getLastLogin()));
             response.put("message", "Registration successful");
 
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             Map<String, Object> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -84,15 +94,14 @@ public class AuthController {
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            userService.updateLastLoginByEmail(request.getEmail());
-
-            User user = userService.getUserByEmail(request.getEmail());
+            User user = (User) authentication.getPrincipal();
+            LocalDateTime lastLogin = userService.recordLogin(user);
 
             String jwt = jwtUtil.generateToken(user);
 
             Map<String, Object> response = new HashMap<>();
             response.put("token", jwt);
-            response.put("user", userResponse(user));
+            response.put("user", userResponse(user, lastLogin));
             response.put("message", "Login successful");
 
             return ResponseEntity.ok(response);
@@ -103,6 +112,25 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader("Authorization") String authorizationHeader,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        if (!authorizationHeader.startsWith("Bearer ")) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Missing bearer token");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        Claims claims = jwtUtil.parseClaims(authorizationHeader.substring(7));
+        if (claims.getId() != null) {
+            tokenRevocationService.revoke(claims.getId(), principal.getId(), claims.getExpiration());
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Logged out");
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/forgot-password")
     public ResponseEntity<?> forgotPassword(@RequestBody ForgotPasswordRequest request) {
         try {
@@ -153,13 +181,15 @@ public class AuthController {
 
             User user = resetToken.getUser();
             user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-            userService.updateUser(user);
+            userService.revokeTokens(user);
 
             tokenRepository.delete(resetToken);
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Password reset successful");
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
             error.put("error", "Failed to reset password");
@@ -201,15 +231,13 @@ public class AuthController {
                 return userService.createUserOAuth(newUser);
             });
 
-            userService.updateLastLoginByEmail(email);
-
-            user = userService.getUserByEmail(email);
+            LocalDateTime lastLogin = userService.recordLogin(user);
 
             String jwt = jwtUtil.generateToken(user);
 
             Map<String, Object> response = new HashMap<>();
             response.put("token", jwt);
-            response.put("user", userResponse(user));
+            response.put("user", userResponse(user, lastLogin));
             response.put("message", "Login successful via Google");
 
             return ResponseEntity.ok(response);
@@ -220,14 +248,14 @@ public class AuthController {
         }
     }
 
-    private Map<String, Object> userResponse(User user) {
+    private Map<String, Object> userResponse(User user, LocalDateTime lastLogin) {
         Map<String, Object> map = new HashMap<>();
         map.put("id", user.getId());
         map.put("email", user.getEmail());
         map.put("firstName", user.getFirstName());
         map.put("lastName", user.getLastName());
         map.put("createdAt", user.getCreatedAt());
-        map.put("lastLogin", user.getLastLogin());
+        map.put("lastLogin", lastLogin);
         map.put("loginMethod", user.getLoginMethod());
         map.put("profileImageUrl", user.getProfileImageUrl());
         return map;
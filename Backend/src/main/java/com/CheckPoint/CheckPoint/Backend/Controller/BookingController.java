@@ -4,11 +4,11 @@ import com.CheckPoint.CheckPoint.Backend.DTO.BookingResponse;
 import com.CheckPoint.CheckPoint.Backend.DTO.UpdateBookingStatusRequest;
 import com.CheckPoint.CheckPoint.Backend.Model.Booking;
 import com.CheckPoint.CheckPoint.Backend.Model.User;
+import com.CheckPoint.CheckPoint.Backend.Security.CurrentUser;
 import com.CheckPoint.CheckPoint.Backend.Service.BookingService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.LinkedHashSet;
@@ -33,7 +33,7 @@ public class BookingController {
     @PostMapping("/rides/{rideId}/bookings")
     public ResponseEntity<BookingResponse> requestRide(
             @PathVariable UUID rideId,
-            @AuthenticationPrincipal User passenger) {
+            @CurrentUser User passenger) {
         Booking newBooking = bookingService.createBooking(rideId, passenger);
         return new ResponseEntity<>(new BookingResponse(newBooking), HttpStatus.CREATED);
     }
@@ -42,14 +42,14 @@ public class BookingController {
     public ResponseEntity<BookingResponse> respondToBooking(
             @PathVariable UUID bookingId,
             @Valid @RequestBody UpdateBookingStatusRequest statusRequest,
-            @AuthenticationPrincipal User driver) {
+            @CurrentUser User driver) {
         Booking updatedBooking = bookingService.updateBookingStatus(bookingId, statusRequest, driver);
         return ResponseEntity.ok(new BookingResponse(updatedBooking));
     }
 
     @GetMapping("/bookings/my-bookings")
     public ResponseEntity<List<BookingResponse>> getMyBookings(
-            @AuthenticationPrincipal User user) {
+            @CurrentUser User user) {
         List<Booking> passengerBookings = bookingService.getPassengerBookings(user);
         List<Booking> driverBookings = bookingService.getDriverBookings(user);
 
@@ -1,14 +1,19 @@
 package com.CheckPoint.CheckPoint.Backend.Controller;
 
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatHistoryPageResponse;
 import com.CheckPoint.CheckPoint.Backend.DTO.ChatMessageResponseDTO;
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatReadStateResponse;
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatSearchHit;
 import com.CheckPoint.CheckPoint.Backend.Model.User;
+import com.CheckPoint.CheckPoint.Backend.Security.CurrentUser;
 import com.CheckPoint.CheckPoint.Backend.Service.ChatService;
+import com.CheckPoint.CheckPoint.Backend.Service.ChatSignalService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -21,11 +26,37 @@ import java.util.UUID;
 public class ChatRestController {
 
     private final ChatService chatService;
+    private final ChatSignalService chatSignalService;
 
     @GetMapping("/history/{bookingId}")
     public List<ChatMessageResponseDTO> getChatHistory(
             @PathVariable UUID bookingId,
-            @AuthenticationPrincipal User user) {
+            @CurrentUser User user) {
         return chatService.getChatHistory(bookingId, user);
     }
+
+    @GetMapping("/history/{bookingId}/page")
+    public ChatHistoryPageResponse getChatHistoryPage(
+            @PathVariable UUID bookingId,
+            @RequestParam(required = false) Long beforeSeq,
+            @RequestParam(required = false) Long afterSeq,
+            @RequestParam(defaultValue = "50") int limit,
+            @CurrentUser User user) {
+        return chatService.getChatHistoryPage(bookingId, user, beforeSeq, afterSeq, limit);
+    }
+
+    @GetMapping("/read/{bookingId}")
+    public ChatReadStateResponse getReadState(
+            @PathVariable UUID bookingId,
+            @CurrentUser User user) {
+        return chatSignalService.getReadState(bookingId, user.getId());
+    }
+
+    @GetMapping("/search")
+    public List<ChatSearchHit> searchMessages(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit,
+            @CurrentUser User user) {
+        return chatService.searchMessages(user, query, limit);
+    }
 }
@@ -1,56 +1,88 @@
 package com.CheckPoint.CheckPoint.Backend.Controller;
 
 import com.CheckPoint.CheckPoint.Backend.DTO.ChatMessageRequestDTO;
-import com.CheckPoint.CheckPoint.Backend.DTO.ChatMessageResponseDTO;
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatReadRequestDTO;
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatTypingRequestDTO;
 import com.CheckPoint.CheckPoint.Backend.Model.User;
-import com.CheckPoint.CheckPoint.Backend.Repository.UserRepository;
+import com.CheckPoint.CheckPoint.Backend.Security.AuthenticatedUser;
 import com.CheckPoint.CheckPoint.Backend.Service.ChatService;
+import com.CheckPoint.CheckPoint.Backend.Service.ChatSignalService;
+import com.CheckPoint.CheckPoint.Backend.Service.UserCache;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
 @Controller
 @RequiredArgsConstructor
 public class ChatWebSocketController {
+    private static final Logger logger = LoggerFactory.getLogger(ChatWebSocketController.class);
+
     private final ChatService chatService;
-    private final SimpMessagingTemplate messagingTemplate;
-    private final UserRepository userRepository;
+    private final ChatSignalService chatSignalService;
+    private final UserCache userCache;
 
     @MessageMapping("/chat.send")
     public void sendMessage(
             @Payload ChatMessageRequestDTO dto,
             Principal principal) {
-        try {
-            // ✅ Extract user from Principal
-            String userEmail = principal.getName();
-            System.out.println("💬 Chat message from: " + userEmail);
-
-            User sender = userRepository.findByEmail(userEmail)
-                    .orElseThrow(() -> new RuntimeException("User not found: " + userEmail));
-
-            System.out.println("✅ Sender found: " + sender.getId());
-
-            ChatMessageResponseDTO response = chatService.sendMessage(
-                    dto.getBookingId(),
-                    sender,
-                    dto.getMessage());
+        UUID senderId = resolveSenderId(principal);
+        chatService.sendMessage(dto.getBookingId(), senderId, dto.getMessage());
+    }
 
-            System.out.println("📤 Broadcasting message to /topic/chat/" + dto.getBookingId());
+    // A send that fails (busy, not a participant) is reported to the sending session only
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public Map<String, Object> handleException(Exception e) {
+        logger.warn("Chat frame rejected: {}", e.getMessage());
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return error;
+    }
 
-            messagingTemplate.convertAndSend(
-                    "/topic/chat/" + dto.getBookingId(),
-                    response);
+    // Ephemeral: relayed to /topic/chat/{bookingId}/typing, never stored
+    @MessageMapping("/chat.typing")
+    public void typing(@Payload ChatTypingRequestDTO dto, Principal principal) {
+        try {
+            chatSignalService.typing(dto.getBookingId(), resolveSenderId(principal), dto.isTyping());
+        } catch (Exception e) {
+            logger.debug("Typing signal for booking {} dropped: {}", dto.getBookingId(), e.getMessage());
+        }
+    }
 
-            System.out.println("✅ Message sent successfully");
+    @MessageMapping("/chat.read")
+    public void markRead(@Payload ChatReadRequestDTO dto, Principal principal) {
+        try {
+            chatSignalService.markRead(dto.getBookingId(), resolveSenderId(principal), dto.getSeq());
         } catch (Exception e) {
-            System.err.println("❌ Error sending message: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("Read receipt for booking {} failed: {}", dto.getBookingId(), e.getMessage());
+        }
+    }
+
+    // Sessions opened with identity-claim tokens carry the user id; only legacy sessions need a lookup
+    private UUID resolveSenderId(Principal principal) {
+        if (principal instanceof Authentication authentication) {
+            Object user = authentication.getPrincipal();
+            if (user instanceof AuthenticatedUser authenticatedUser) {
+                return authenticatedUser.getId();
+            }
+            if (user instanceof User entity) {
+                return entity.getId();
+            }
         }
+        return userCache.getByEmail(principal.getName())
+                .map(User::getId)
+                .orElseThrow(() -> new RuntimeException("User not found: " + principal.getName()));
     }
 }
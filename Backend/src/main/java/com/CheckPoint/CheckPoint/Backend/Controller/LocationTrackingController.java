@@ -3,12 +3,12 @@ package com.CheckPoint.CheckPoint.Backend.Controller;
 import com.CheckPoint.CheckPoint.Backend.DTO.LocationResponseDto;
 import com.CheckPoint.CheckPoint.Backend.DTO.LocationUpdateDto;
 import com.CheckPoint.CheckPoint.Backend.Model.User;
+import com.CheckPoint.CheckPoint.Backend.Security.CurrentUser;
 import com.CheckPoint.CheckPoint.Backend.Service.LocationTrackingService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
@@ -32,7 +32,7 @@ public class LocationTrackingController {
     @PostMapping("/update")
     public ResponseEntity<LocationResponseDto> updateLocation(
             @Valid @RequestBody LocationUpdateDto dto,
-            @AuthenticationPrincipal User user) {
+            @CurrentUser User user) {
         LocationResponseDto response = locationService.updateLocation(dto, user);
         return ResponseEntity.ok(response);
     }
@@ -40,7 +40,7 @@ public class LocationTrackingController {
     @GetMapping("/driver/{rideId}")
     public ResponseEntity<LocationResponseDto> getDriverLocation(
             @PathVariable UUID rideId,
-            @AuthenticationPrincipal User user) {
+            @CurrentUser User user) {
         LocationResponseDto response = locationService.getDriverLocation(rideId, user);
         return ResponseEntity.ok(response);
     }
@@ -48,7 +48,7 @@ public class LocationTrackingController {
     @GetMapping("/passenger/{rideId}")
     public ResponseEntity<LocationResponseDto> getPassengerLocation(
             @PathVariable UUID rideId,
-            @AuthenticationPrincipal User driver) {
+            @CurrentUser User driver) {
         LocationResponseDto response = locationService.getPassengerLocation(rideId, driver);
         return ResponseEntity.ok(response);
     }
@@ -1,11 +1,14 @@
 package com.CheckPoint.CheckPoint.Backend.Controller;
 
+import com.CheckPoint.CheckPoint.Backend.DTO.NotificationPageResponse;
+import com.CheckPoint.CheckPoint.Backend.DTO.NotificationReplayResponse;
 import com.CheckPoint.CheckPoint.Backend.DTO.NotificationResponse;
+import com.CheckPoint.CheckPoint.Backend.DTO.UnreadCountResponse;
 import com.CheckPoint.CheckPoint.Backend.Model.Notification;
 import com.CheckPoint.CheckPoint.Backend.Model.User;
+import com.CheckPoint.CheckPoint.Backend.Security.CurrentUser;
 import com.CheckPoint.CheckPoint.Backend.Service.NotificationService;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -28,17 +31,29 @@ public class NotificationController {
 
     @GetMapping
     public ResponseEntity<List<NotificationResponse>> getMyNotifications(
-            @AuthenticationPrincipal User user) {
-        List<Notification> notifications = notificationService.getUserNotifications(user);
-        List<NotificationResponse> response = notifications.stream()
-                .map(NotificationResponse::new)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+            @CurrentUser User user) {
+        return ResponseEntity.ok(notificationService.getUserNotifications(user));
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<NotificationPageResponse> getMyNotificationsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @CurrentUser User user) {
+        return ResponseEntity.ok(notificationService.getUserNotificationsPage(user, cursor, limit));
+    }
+
+    @GetMapping("/since")
+    public ResponseEntity<NotificationReplayResponse> getNotificationsSince(
+            @RequestParam(defaultValue = "0") long seq,
+            @RequestParam(defaultValue = "50") int limit,
+            @CurrentUser User user) {
+        return ResponseEntity.ok(notificationService.getNotificationsSince(user, seq, limit));
     }
 
     @GetMapping("/unread")
     public ResponseEntity<List<NotificationResponse>> getUnreadNotifications(
-            @AuthenticationPrincipal User user) {
+            @CurrentUser User user) {
         List<Notification> notifications = notificationService.getUnreadNotifications(user);
         List<NotificationResponse> response = notifications.stream()
                 .map(NotificationResponse::new)
@@ -46,16 +61,21 @@ public class NotificationController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/unread-count")
+    public ResponseEntity<UnreadCountResponse> getUnreadCount(@CurrentUser User user) {
+        return ResponseEntity.ok(new UnreadCountResponse(notificationService.getUnreadCount(user)));
+    }
+
     @PatchMapping("/{notificationId}/read")
     public ResponseEntity<NotificationResponse> markAsRead(
             @PathVariable UUID notificationId,
-            @AuthenticationPrincipal User user) {
+            @CurrentUser User user) {
         Notification notification = notificationService.markAsRead(notificationId, user);
         return ResponseEntity.ok(new NotificationResponse(notification));
     }
 
     @PatchMapping("/read-all")
-    public ResponseEntity<Void> markAllAsRead(@AuthenticationPrincipal User user) {
+    public ResponseEntity<Void> markAllAsRead(@CurrentUser User user) {
         notificationService.markAllAsRead(user);
         return ResponseEntity.ok().build();
     }
@@ -63,7 +83,7 @@ public class NotificationController {
     @DeleteMapping("/{notificationId}")
     public ResponseEntity<Void> deleteNotification(
             @PathVariable UUID notificationId,
-            @AuthenticationPrincipal User user) {
+            @CurrentUser User user) {
         notificationService.deleteNotification(notificationId, user);
         return ResponseEntity.ok().build();
     }
@@ -4,10 +4,10 @@ import com.CheckPoint.CheckPoint.Backend.DTO.CreatePaymentRequest;
 import com.CheckPoint.CheckPoint.Backend.DTO.VerifyPaymentRequest;
 import com.CheckPoint.CheckPoint.Backend.DTO.TransactionResponse;
 import com.CheckPoint.CheckPoint.Backend.Model.User;
+import com.CheckPoint.CheckPoint.Backend.Security.CurrentUser;
 import com.CheckPoint.CheckPoint.Backend.Service.PaymentService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.UUID;
@@ -31,7 +31,7 @@ public class PaymentController {
     @PostMapping("/create-order")
     public ResponseEntity<Map<String, String>> createPaymentOrder(
             @Valid @RequestBody CreatePaymentRequest request,
-            @AuthenticationPrincipal User rider) {
+            @CurrentUser User rider) {
         Map<String, String> orderDetails = paymentService.createRazorpayOrder(request.getRideId(), rider);
         return ResponseEntity.ok(orderDetails);
     }
@@ -39,7 +39,7 @@ public class PaymentController {
     @PostMapping("/verify")
     public ResponseEntity<TransactionResponse> verifyPayment(
             @Valid @RequestBody VerifyPaymentRequest request,
-            @AuthenticationPrincipal User rider) {
+            @CurrentUser User rider) {
         TransactionResponse transaction = paymentService.verifyAndCompletePayment(request, rider);
         return ResponseEntity.ok(transaction);
     }
@@ -47,21 +47,21 @@ public class PaymentController {
     @GetMapping("/{transactionId}")
     public ResponseEntity<TransactionResponse> getTransaction(
             @PathVariable UUID transactionId,
-            @AuthenticationPrincipal User user) {
+            @CurrentUser User user) {
         TransactionResponse transaction = paymentService.getTransactionById(transactionId, user);
         return ResponseEntity.ok(transaction);
     }
 
     @GetMapping("/history")
     public ResponseEntity<List<TransactionResponse>> getTransactionHistory(
-            @AuthenticationPrincipal User user) {
+            @CurrentUser User user) {
         List<TransactionResponse> transactions = paymentService.getUserTransactions(user);
         return ResponseEntity.ok(transactions);
     }
 
     @GetMapping("/earnings/pending")
     public ResponseEntity<Map<String, Double>> getPendingEarnings(
-            @AuthenticationPrincipal User driver) {
+            @CurrentUser User driver) {
         Double pendingEarnings = paymentService.getDriverPendingEarnings(driver);
         return ResponseEntity.ok(Map.of("pendingEarnings", pendingEarnings));
     }
@@ -5,11 +5,11 @@ import com.CheckPoint.CheckPoint.Backend.DTO.RideResponse;
 import com.CheckPoint.CheckPoint.Backend.Model.RideStatus;
 import com.CheckPoint.CheckPoint.Backend.Model.Ride;
 import com.CheckPoint.CheckPoint.Backend.Model.User;
+import com.CheckPoint.CheckPoint.Backend.Security.CurrentUser;
 import com.CheckPoint.CheckPoint.Backend.Service.RideService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
@@ -31,7 +31,7 @@ public class RideController {
     @PostMapping
     public ResponseEntity<RideResponse> offerRide(
             @Valid @RequestBody CreateRideRequest request,
-            @AuthenticationPrincipal User driver) {
+            @CurrentUser User driver) {
         RideResponse response = rideService.createRideWithResponse(request, driver);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
@@ -58,7 +58,7 @@ public class RideController {
 
     @GetMapping("/my-rides")
     public ResponseEntity<List<RideResponse>> getMyRides(
-            @AuthenticationPrincipal User driver,
+            @CurrentUser User driver,
             @RequestParam(required = false) RideStatus status) {
         List<RideResponse> rides;
         if (status != null) {
@@ -72,7 +72,7 @@ public class RideController {
     @PatchMapping("/{rideId}/cancel")
     public ResponseEntity<RideResponse> cancelRide(
             @PathVariable UUID rideId,
-            @AuthenticationPrincipal User driver) {
+            @CurrentUser User driver) {
         RideResponse ride = rideService.cancelRide(rideId, driver);
         return ResponseEntity.ok(ride);
     }
@@ -80,7 +80,7 @@ public class RideController {
     @PatchMapping("/{rideId}/start")
     public ResponseEntity<RideResponse> startRide(
             @PathVariable UUID rideId,
-            @AuthenticationPrincipal User driver) {
+            @CurrentUser User driver) {
         RideResponse ride = rideService.startRide(rideId, driver);
         return ResponseEntity.ok(ride);
     }
@@ -88,7 +88,7 @@ public class RideController {
     @PatchMapping("/{rideId}/complete")
     public ResponseEntity<RideResponse> completeRide(
             @PathVariable UUID rideId,
-            @AuthenticationPrincipal User driver) {
+            @CurrentUser User driver) {
         RideResponse ride = rideService.completeRide(rideId, driver);
         return ResponseEntity.ok(ride);
     }
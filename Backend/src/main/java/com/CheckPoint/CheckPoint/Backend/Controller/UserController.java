@@ -3,10 +3,10 @@ package com.CheckPoint.CheckPoint.Backend.Controller;
 import com.CheckPoint.CheckPoint.Backend.DTO.UpdateVehicleDetailsRequest;
 import com.CheckPoint.CheckPoint.Backend.Model.User;
 import com.CheckPoint.CheckPoint.Backend.Model.VehicleDetails;
+import com.CheckPoint.CheckPoint.Backend.Security.CurrentUser;
 import com.CheckPoint.CheckPoint.Backend.Service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -24,7 +24,7 @@ public class UserController {
     }
 
     @GetMapping("/profile")
-    public ResponseEntity<?> getProfile(@AuthenticationPrincipal User user) {
+    public ResponseEntity<?> getProfile(@CurrentUser User user) {
         User userProfile = userService.getUserProfile(user.getId());
 
         Map<String, Object> response = new HashMap<>();
@@ -41,7 +41,7 @@ public class UserController {
     @PutMapping("/vehicle")
     public ResponseEntity<?> updateVehicleDetails(
             @Valid @RequestBody UpdateVehicleDetailsRequest request,
-            @AuthenticationPrincipal User user) {
+            @CurrentUser User user) {
 
         VehicleDetails vehicleDetails = new VehicleDetails();
         vehicleDetails.setVehicleModel(request.getVehicleModel());
@@ -59,7 +59,7 @@ public class UserController {
     }
 
     @GetMapping("/vehicle")
-    public ResponseEntity<?> getVehicleDetails(@AuthenticationPrincipal User user) {
+    public ResponseEntity<?> getVehicleDetails(@CurrentUser User user) {
         User userProfile = userService.getUserProfile(user.getId());
 
         Map<String, Object> response = new HashMap<>();
@@ -13,4 +13,5 @@ public class ChatMessageResponseDTO {
     private UUID senderId;
     private String message;
     private LocalDateTime sentAt;
+    private Long seq;
 }
@@ -0,0 +1,14 @@
+package com.CheckPoint.CheckPoint.Backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+// Every message in the room up to persistedSeq has been written
+@Data
+@AllArgsConstructor
+public class ChatPersistedResponse {
+    private UUID bookingId;
+    private long persistedSeq;
+}
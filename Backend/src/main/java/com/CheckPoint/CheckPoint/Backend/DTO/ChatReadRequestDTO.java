@@ -0,0 +1,11 @@
+package com.CheckPoint.CheckPoint.Backend.DTO;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class ChatReadRequestDTO {
+    private UUID bookingId;
+    private long seq;
+}
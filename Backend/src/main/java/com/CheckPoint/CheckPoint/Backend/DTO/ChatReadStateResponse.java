@@ -0,0 +1,14 @@
+package com.CheckPoint.CheckPoint.Backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class ChatReadStateResponse {
+    private UUID bookingId;
+    private long passengerReadSeq;
+    private long driverReadSeq;
+}
@@ -0,0 +1,22 @@
+package com.CheckPoint.CheckPoint.Backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+// Messages already broadcast under one seq that were written under another, in their new order
+@Data
+@AllArgsConstructor
+public class ChatResequencedResponse {
+    private UUID bookingId;
+    private List<Entry> messages;
+
+    @Data
+    @AllArgsConstructor
+    public static class Entry {
+        private UUID messageId;
+        private long seq;
+    }
+}
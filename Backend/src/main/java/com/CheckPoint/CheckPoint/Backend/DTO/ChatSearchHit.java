@@ -0,0 +1,18 @@
+package com.CheckPoint.CheckPoint.Backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class ChatSearchHit {
+    private UUID bookingId;
+    private UUID messageId;
+    private UUID senderId;
+    private String message;
+    private LocalDateTime sentAt;
+    private Long seq;
+}
@@ -0,0 +1,14 @@
+package com.CheckPoint.CheckPoint.Backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class ChatTypingResponse {
+    private UUID bookingId;
+    private UUID userId;
+    private boolean typing;
+}
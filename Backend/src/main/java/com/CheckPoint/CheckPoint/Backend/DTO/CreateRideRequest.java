@@ -38,6 +38,8 @@ public class CreateRideRequest {
     @Positive(message = "Price must be a positive value")
     private BigDecimal price;
 
+    private Boolean instantBook = false;
+
     public @NotNull(message = "Start latitude cannot be null") @Min(value = -90, message = "Latitude must be between -90 and 90") @Max(value = 90, message = "Latitude must be between -90 and 90") Double getStartLatitude() {
         return startLatitude;
     }
@@ -85,4 +87,12 @@ public class CreateRideRequest {
     public void setPrice(@NotNull(message = "Price cannot be null") @Positive(message = "Price must be a positive value") BigDecimal price) {
         this.price = price;
     }
+
+    public Boolean getInstantBook() {
+        return instantBook;
+    }
+
+    public void setInstantBook(Boolean instantBook) {
+        this.instantBook = instantBook;
+    }
 }
@@ -0,0 +1,13 @@
+package com.CheckPoint.CheckPoint.Backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class NotificationPageResponse {
+    private List<NotificationResponse> items;
+    private String nextCursor;
+}
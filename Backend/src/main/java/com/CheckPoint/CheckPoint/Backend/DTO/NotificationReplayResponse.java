@@ -0,0 +1,14 @@
+package com.CheckPoint.CheckPoint.Backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class NotificationReplayResponse {
+    private List<NotificationResponse> items;
+    private long lastSequence;
+    private boolean hasMore;
+}
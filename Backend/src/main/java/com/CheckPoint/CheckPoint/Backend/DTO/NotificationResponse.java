@@ -17,6 +17,7 @@ public class NotificationResponse {
     private LocalDateTime createdAt;
     private UUID rideId;
     private UUID bookingId;
+    private Long sequence;
     private boolean actionRequired; // Add this
 
     public NotificationResponse() {
@@ -31,6 +32,7 @@ public class NotificationResponse {
         this.createdAt = notification.getCreatedAt();
         this.rideId = notification.getRideId();
         this.bookingId = notification.getBookingId();
+        this.sequence = notification.getSequence();
 
         this.actionRequired = notification.getType() == NotificationType.BOOKING_REQUEST;
     }
@@ -99,6 +101,14 @@ public class NotificationResponse {
         this.bookingId = bookingId;
     }
 
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
     public boolean isActionRequired() {
         return actionRequired;
     }
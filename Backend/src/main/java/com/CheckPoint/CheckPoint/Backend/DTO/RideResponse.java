@@ -21,6 +21,7 @@ public class RideResponse {
     private BigDecimal price;
     private String status;
     private Integer availableSeats;
+    private Boolean instantBook;
     private LocalDateTime createdAt;
     private String paymentStatus;
     private String paymentMethod;
@@ -42,6 +43,7 @@ public class RideResponse {
 
         this.status = ride.getStatus().name();
         this.availableSeats = ride.getAvailableSeats();
+        this.instantBook = ride.getInstantBook();
         this.createdAt = ride.getCreatedAt();
         this.paymentStatus = ride.getPaymentStatus() != null
                 ? ride.getPaymentStatus().name()
@@ -0,0 +1,13 @@
+package com.CheckPoint.CheckPoint.Backend.DTO;
+
+import lombok.Data;
+
+@Data
+public class UnreadCountResponse {
+    private String type = "UNREAD_COUNT";
+    private long unreadCount;
+
+    public UnreadCountResponse(long unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
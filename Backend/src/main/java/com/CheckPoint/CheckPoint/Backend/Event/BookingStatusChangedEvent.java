@@ -0,0 +1,42 @@
+package com.CheckPoint.CheckPoint.Backend.Event;
+
+import com.CheckPoint.CheckPoint.Backend.Model.Booking;
+import com.CheckPoint.CheckPoint.Backend.Model.BookingStatus;
+import com.CheckPoint.CheckPoint.Backend.Model.User;
+
+public class BookingStatusChangedEvent {
+
+    private final Booking booking;
+    private final BookingStatus previousStatus;
+    private final BookingStatus newStatus;
+    private final User actor;
+
+    // previousStatus is null for a newly created booking, actor is null for system-driven changes
+    public BookingStatusChangedEvent(Booking booking, BookingStatus previousStatus,
+            BookingStatus newStatus, User actor) {
+        this.booking = booking;
+        this.previousStatus = previousStatus;
+        this.newStatus = newStatus;
+        this.actor = actor;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    public BookingStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public BookingStatus getNewStatus() {
+        return newStatus;
+    }
+
+    public User getActor() {
+        return actor;
+    }
+
+    public boolean isCreation() {
+        return previousStatus == null;
+    }
+}
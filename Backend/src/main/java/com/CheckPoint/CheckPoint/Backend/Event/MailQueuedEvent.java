@@ -0,0 +1,16 @@
+package com.CheckPoint.CheckPoint.Backend.Event;
+
+import java.util.UUID;
+
+public class MailQueuedEvent {
+
+    private final UUID mailId;
+
+    public MailQueuedEvent(UUID mailId) {
+        this.mailId = mailId;
+    }
+
+    public UUID getMailId() {
+        return mailId;
+    }
+}
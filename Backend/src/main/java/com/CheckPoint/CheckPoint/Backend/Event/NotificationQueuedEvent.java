@@ -0,0 +1,16 @@
+package com.CheckPoint.CheckPoint.Backend.Event;
+
+import java.util.UUID;
+
+public class NotificationQueuedEvent {
+
+    private final UUID notificationId;
+
+    public NotificationQueuedEvent(UUID notificationId) {
+        this.notificationId = notificationId;
+    }
+
+    public UUID getNotificationId() {
+        return notificationId;
+    }
+}
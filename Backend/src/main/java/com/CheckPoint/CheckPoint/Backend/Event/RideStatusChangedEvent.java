@@ -0,0 +1,36 @@
+package com.CheckPoint.CheckPoint.Backend.Event;
+
+import com.CheckPoint.CheckPoint.Backend.Model.Ride;
+import com.CheckPoint.CheckPoint.Backend.Model.RideStatus;
+import com.CheckPoint.CheckPoint.Backend.Model.User;
+
+public class RideStatusChangedEvent {
+
+    private final Ride ride;
+    private final RideStatus previousStatus;
+    private final RideStatus newStatus;
+    private final User actor;
+
+    public RideStatusChangedEvent(Ride ride, RideStatus previousStatus, RideStatus newStatus, User actor) {
+        this.ride = ride;
+        this.previousStatus = previousStatus;
+        this.newStatus = newStatus;
+        this.actor = actor;
+    }
+
+    public Ride getRide() {
+        return ride;
+    }
+
+    public RideStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public RideStatus getNewStatus() {
+        return newStatus;
+    }
+
+    public User getActor() {
+        return actor;
+    }
+}
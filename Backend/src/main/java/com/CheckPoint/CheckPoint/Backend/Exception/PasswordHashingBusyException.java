@@ -0,0 +1,8 @@
+package com.CheckPoint.CheckPoint.Backend.Exception;
+
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException() {
+        super("Too many sign-in attempts right now. Please try again shortly.");
+    }
+}
@@ -13,7 +13,7 @@ import java.util.UUID;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = @Index(name = "idx_bookings_status", columnList = "status"))
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Booking {
     @Id
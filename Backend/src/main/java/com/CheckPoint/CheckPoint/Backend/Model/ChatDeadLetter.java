@@ -0,0 +1,45 @@
+package com.CheckPoint.CheckPoint.Backend.Model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A broadcast chat message that could not be written to chat_messages; kept for replay by hand
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "chat_dead_letters", indexes = @Index(name = "idx_chat_dead_letters_room_seq", columnList = "chat_room_id, seq"))
+public class ChatDeadLetter {
+
+    // The message's own id, so dead-lettering the same message twice leaves one row
+    @Id
+    private UUID id;
+
+    // Plain ids rather than associations, so a broken room or sender cannot fail this write too
+    @Column(name = "chat_room_id", nullable = false)
+    private UUID chatRoomId;
+
+    @Column(nullable = false)
+    private UUID bookingId;
+
+    @Column(nullable = false)
+    private UUID senderId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String message;
+
+    @Column(nullable = false)
+    private LocalDateTime sentAt;
+
+    @Column(name = "seq")
+    private Long seq;
+
+    @Column(nullable = false)
+    private LocalDateTime failedAt = LocalDateTime.now();
+
+    @Column(length = 500)
+    private String lastError;
+}
@@ -2,6 +2,8 @@ package com.CheckPoint.CheckPoint.Backend.Model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.springframework.data.domain.Persistable;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -9,11 +11,14 @@ import java.util.UUID;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "chat_messages")
-public class ChatMessage {
+@Table(name = "chat_messages", indexes = {
+        @Index(name = "uk_chat_messages_room_seq", columnList = "chat_room_id, seq", unique = true),
+        @Index(name = "idx_chat_messages_sent_at", columnList = "sent_at")
+})
+public class ChatMessage implements Persistable<UUID> {
 
+    // Assigned when the message is accepted, so it can be broadcast before it is written
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -30,10 +35,32 @@ public class ChatMessage {
     @Column(nullable = false)
     private LocalDateTime sentAt;
 
+    // Monotonic per room; the keyset for history paging
+    @Column(name = "seq")
+    private Long seq;
+
+    // Lets save() persist an entity with an assigned id without a merge lookup first
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
     @PrePersist
     public void prePersist() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
         if (sentAt == null) {
             sentAt = LocalDateTime.now();
         }
     }
+
+    @PostPersist
+    @PostLoad
+    void markPersisted() {
+        persisted = true;
+    }
 }
@@ -1,6 +1,7 @@
 package com.CheckPoint.CheckPoint.Backend.Model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -20,4 +21,18 @@ public class ChatRoom {
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booking_id", nullable = false, unique = true)
     private Booking booking;
+
+    // Read-receipt high-water marks, written in batches by ChatSignalService
+    @ColumnDefault("0")
+    @Column(name = "passenger_read_seq", nullable = false)
+    private Long passengerReadSeq = 0L;
+
+    @ColumnDefault("0")
+    @Column(name = "driver_read_seq", nullable = false)
+    private Long driverReadSeq = 0L;
+
+    // Highest sequence handed out, kept only in relay mode where several nodes number one room
+    @ColumnDefault("0")
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq = 0L;
 }
@@ -11,7 +11,11 @@ import java.util.UUID;
 
 @Entity
 @Data
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_read_created", columnList = "user_id, is_read, created_at"),
+        @Index(name = "idx_notifications_read_created", columnList = "is_read, created_at"),
+        @Index(name = "uk_notifications_user_seq", columnList = "user_id, seq", unique = true)
+})
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Notification {
     @Id
@@ -38,6 +42,10 @@ public class Notification {
     @Column(nullable = false)
     private Boolean isRead = false;
 
+    // Per-user position used for reconnect replay
+    @Column(name = "seq")
+    private Long sequence;
+
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -131,6 +139,14 @@ public class Notification {
         isRead = read;
     }
 
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,21 @@
+package com.CheckPoint.CheckPoint.Backend.Model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "notification_sequences")
+public class NotificationSequence {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private Long lastSequence = 0L;
+}
@@ -0,0 +1,6 @@
+package com.CheckPoint.CheckPoint.Backend.Model;
+
+public enum OutboxStatus {
+    PENDING,
+    FAILED
+}
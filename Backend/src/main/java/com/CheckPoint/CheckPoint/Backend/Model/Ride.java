@@ -52,6 +52,9 @@ public class Ride {
     @Column(nullable = false)
     private Integer availableSeats = 1;
 
+    @Column(nullable = false)
+    private Boolean instantBook = false;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -154,6 +157,14 @@ public class Ride {
         this.availableSeats = availableSeats;
     }
 
+    public Boolean getInstantBook() {
+        return instantBook;
+    }
+
+    public void setInstantBook(Boolean instantBook) {
+        this.instantBook = instantBook;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -3,6 +3,8 @@ package com.CheckPoint.CheckPoint.Backend.Model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -12,7 +14,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_updated_at", columnList = "updated_at"))
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class User implements UserDetails {
 
@@ -35,6 +37,12 @@ public class User implements UserDetails {
 
     private LocalDateTime lastLogin;
 
+    // Tells other nodes which cached copies are stale; last-login writes leave it alone
+    @JsonIgnore
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @Column(unique = true)
     private String googleId;
 
@@ -55,6 +63,12 @@ public class User implements UserDetails {
     @Column(name = "enabled", nullable = false)
     private Boolean enabled = true;
 
+    // Bumped to invalidate every token issued before; checked against the "tv" claim
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private Integer tokenVersion = 0;
+
     @Embedded
     private BankDetails bankDetails;
 
@@ -81,6 +95,8 @@ public class User implements UserDetails {
             enabled = true;
         if (createdAt == null)
             createdAt = LocalDateTime.now();
+        if (tokenVersion == null)
+            tokenVersion = 0;
     }
 
     @Override
@@ -169,6 +185,22 @@ public class User implements UserDetails {
         this.lastLogin = lastLogin;
     }
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Integer getTokenVersion() {
+        return tokenVersion != null ? tokenVersion : 0;
+    }
+
+    public void setTokenVersion(Integer tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     public String getGoogleId() {
         return googleId;
     }
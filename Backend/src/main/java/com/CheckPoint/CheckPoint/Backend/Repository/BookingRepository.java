@@ -1,12 +1,19 @@
 package com.CheckPoint.CheckPoint.Backend.Repository;
 
+import com.CheckPoint.CheckPoint.Backend.DTO.BookingParticipants;
 import com.CheckPoint.CheckPoint.Backend.Model.Booking;
 import com.CheckPoint.CheckPoint.Backend.Model.BookingStatus;
 import com.CheckPoint.CheckPoint.Backend.Model.Ride;
 import com.CheckPoint.CheckPoint.Backend.Model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,4 +29,32 @@ public interface BookingRepository extends JpaRepository<Booking, UUID> {
     List<Booking> findByPassengerOrderByCreatedAtDesc(User passenger);
 
     List<Booking> findByRide(Ride ride);
-}
\ No newline at end of file
+
+    List<Booking> findByStatus(BookingStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id = :id")
+    Optional<Booking> findByIdForUpdate(@Param("id") UUID id);
+
+    // Guarded on the current status, so a change that committed first is never overwritten
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :target WHERE b.id = :id AND b.status = :expected")
+    int transitionStatus(@Param("id") UUID id,
+            @Param("expected") BookingStatus expected,
+            @Param("target") BookingStatus target);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.passenger WHERE b.ride = :ride AND b.status = :status")
+    List<Booking> findWithPassengerByRideAndStatus(@Param("ride") Ride ride, @Param("status") BookingStatus status);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.passenger WHERE b.id IN :ids AND b.status = :status")
+    List<Booking> findWithPassengerByIdInAndStatus(@Param("ids") Collection<UUID> ids,
+            @Param("status") BookingStatus status);
+
+    // Reads the passenger and driver ids from FK columns; only rides is joined
+    @Query("""
+                SELECT new com.CheckPoint.CheckPoint.Backend.DTO.BookingParticipants(b.id, b.passenger.id, r.driver.id)
+                FROM Booking b JOIN b.ride r
+                WHERE b.id = :bookingId
+            """)
+    Optional<BookingParticipants> findParticipants(@Param("bookingId") UUID bookingId);
+}
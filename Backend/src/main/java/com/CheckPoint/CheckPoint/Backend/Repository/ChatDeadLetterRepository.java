@@ -0,0 +1,11 @@
+package com.CheckPoint.CheckPoint.Backend.Repository;
+
+import com.CheckPoint.CheckPoint.Backend.Model.ChatDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface ChatDeadLetterRepository extends JpaRepository<ChatDeadLetter, UUID> {
+}
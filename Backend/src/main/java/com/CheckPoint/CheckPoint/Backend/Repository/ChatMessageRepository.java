@@ -1,11 +1,81 @@
 package com.CheckPoint.CheckPoint.Backend.Repository;
 
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatMessageResponseDTO;
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatSearchHit;
 import com.CheckPoint.CheckPoint.Backend.Model.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+// History queries project straight to the DTO; m.sender.id reads the FK column without touching users
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID> {
-    List<ChatMessage> findByChatRoom_IdOrderBySentAtAsc(UUID chatRoomId);
+
+    @Query("""
+                SELECT new com.CheckPoint.CheckPoint.Backend.DTO.ChatMessageResponseDTO(m.id, m.sender.id, m.message, m.sentAt, m.seq)
+                FROM ChatMessage m
+                WHERE m.chatRoom.id = :chatRoomId
+                ORDER BY m.sentAt ASC
+            """)
+    List<ChatMessageResponseDTO> findHistory(@Param("chatRoomId") UUID chatRoomId);
+
+    @Query("""
+                SELECT new com.CheckPoint.CheckPoint.Backend.DTO.ChatMessageResponseDTO(m.id, m.sender.id, m.message, m.sentAt, m.seq)
+                FROM ChatMessage m
+                WHERE m.chatRoom.id = :chatRoomId AND m.seq IS NOT NULL
+                ORDER BY m.seq DESC
+            """)
+    List<ChatMessageResponseDTO> findLatest(@Param("chatRoomId") UUID chatRoomId, Pageable pageable);
+
+    @Query("""
+                SELECT new com.CheckPoint.CheckPoint.Backend.DTO.ChatMessageResponseDTO(m.id, m.sender.id, m.message, m.sentAt, m.seq)
+                FROM ChatMessage m
+                WHERE m.chatRoom.id = :chatRoomId AND m.seq < :seq
+                ORDER BY m.seq DESC
+            """)
+    List<ChatMessageResponseDTO> findBefore(@Param("chatRoomId") UUID chatRoomId, @Param("seq") long seq,
+            Pageable pageable);
+
+    @Query("""
+                SELECT new com.CheckPoint.CheckPoint.Backend.DTO.ChatMessageResponseDTO(m.id, m.sender.id, m.message, m.sentAt, m.seq)
+                FROM ChatMessage m
+                WHERE m.chatRoom.id = :chatRoomId AND m.seq > :seq
+                ORDER BY m.seq ASC
+            """)
+    List<ChatMessageResponseDTO> findAfter(@Param("chatRoomId") UUID chatRoomId, @Param("seq") long seq,
+            Pageable pageable);
+
+    @Query("""
+                SELECT new com.CheckPoint.CheckPoint.Backend.DTO.ChatSearchHit(m.chatRoom.booking.id, m.id, m.sender.id, m.message, m.sentAt, m.seq)
+                FROM ChatMessage m
+                WHERE m.id IN :ids
+                ORDER BY m.sentAt DESC
+            """)
+    List<ChatSearchHit> findSearchHits(@Param("ids") Collection<UUID> ids);
+
+    // Keyset pages in send order for rebuilding the search index
+    List<ChatMessage> findAllByOrderBySentAtAscIdAsc(Pageable pageable);
+
+    List<ChatMessage> findBySentAtAfterOrderBySentAtAscIdAsc(LocalDateTime sentAt, Pageable pageable);
+
+    @Query("""
+                SELECT m FROM ChatMessage m
+                WHERE m.sentAt > :sentAt OR (m.sentAt = :sentAt AND m.id > :id)
+                ORDER BY m.sentAt ASC, m.id ASC
+            """)
+    List<ChatMessage> findIndexPageAfter(@Param("sentAt") LocalDateTime sentAt, @Param("id") UUID id,
+            Pageable pageable);
+
+    @Query("SELECT MAX(m.seq) FROM ChatMessage m WHERE m.chatRoom.id = :chatRoomId")
+    Long findMaxSeq(@Param("chatRoomId") UUID chatRoomId);
+
+    @Query("SELECT DISTINCT m.chatRoom.id FROM ChatMessage m WHERE m.seq IS NULL")
+    List<UUID> findRoomIdsWithUnsequencedMessages();
+
+    List<ChatMessage> findByChatRoom_IdAndSeqIsNullOrderBySentAtAsc(UUID chatRoomId);
 }
@@ -1,11 +1,48 @@
 package com.CheckPoint.CheckPoint.Backend.Repository;
 
 import com.CheckPoint.CheckPoint.Backend.Model.ChatRoom;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface ChatRoomRepository extends JpaRepository<ChatRoom, UUID> {
     Optional<ChatRoom> findByBooking_Id(UUID bookingId);
+
+    @Query("SELECT r.id FROM ChatRoom r WHERE r.booking.id = :bookingId")
+    Optional<UUID> findIdByBookingId(@Param("bookingId") UUID bookingId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ChatRoom r WHERE r.id = :id")
+    Optional<ChatRoom> findByIdForUpdate(@Param("id") UUID id);
+
+    @Query("""
+                SELECT r.id FROM ChatRoom r JOIN r.booking b JOIN b.ride ride
+                WHERE b.passenger.id = :userId OR ride.driver.id = :userId
+            """)
+    List<UUID> findIdsByParticipant(@Param("userId") UUID userId);
+
+    // Guarded so a late flush never moves a mark backwards
+    @Modifying
+    @Query("UPDATE ChatRoom r SET r.passengerReadSeq = :seq WHERE r.id = :id AND r.passengerReadSeq < :seq")
+    int advancePassengerReadSeq(@Param("id") UUID id, @Param("seq") long seq);
+
+    @Modifying
+    @Query("UPDATE ChatRoom r SET r.driverReadSeq = :seq WHERE r.id = :id AND r.driverReadSeq < :seq")
+    int advanceDriverReadSeq(@Param("id") UUID id, @Param("seq") long seq);
+
+    // The row lock orders concurrent senders on every node; the floor carries a room numbered
+    // before the column was kept past the messages it already has
+    @Modifying
+    @Query("UPDATE ChatRoom r SET r.lastSeq = greatest(r.lastSeq, :floor) + 1 WHERE r.id = :id")
+    int advanceLastSeq(@Param("id") UUID id, @Param("floor") long floor);
+
+    @Query("SELECT r.lastSeq FROM ChatRoom r WHERE r.id = :id")
+    Optional<Long> findLastSeq(@Param("id") UUID id);
 }
@@ -0,0 +1,29 @@
+package com.CheckPoint.CheckPoint.Backend.Repository;
+
+import com.CheckPoint.CheckPoint.Backend.Model.MailOutbox;
+import com.CheckPoint.CheckPoint.Backend.Model.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, UUID> {
+
+    // Locks the rows it returns and skips rows another node holds (timeout -2 is SKIP LOCKED),
+    // so every node can poll and each due entry is claimed by one of them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    List<MailOutbox> findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+            OutboxStatus status, LocalDateTime now, Pageable pageable);
+
+    long countByStatus(OutboxStatus status);
+}
@@ -2,19 +2,47 @@ package com.CheckPoint.CheckPoint.Backend.Repository;
 
 import com.CheckPoint.CheckPoint.Backend.Model.Notification;
 import com.CheckPoint.CheckPoint.Backend.Model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, UUID> {
-    List<Notification> findByUserOrderByCreatedAtDesc(User user);
-
     List<Notification> findByUserAndIsReadFalseOrderByCreatedAtDesc(User user);
 
     List<Notification> findByUserAndIsReadFalse(User user);
 
     Long countByUserAndIsReadFalse(User user);
+
+    long countByUser_IdAndIsReadFalse(UUID userId);
+
+    List<Notification> findByUserAndSequenceGreaterThanOrderBySequenceAsc(User user, Long sequence, Pageable pageable);
+
+    List<Notification> findByUserOrderByCreatedAtDescIdDesc(User user, Pageable pageable);
+
+    @Query("""
+                SELECT n FROM Notification n
+                WHERE n.user = :user
+                AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id))
+                ORDER BY n.createdAt DESC, n.id DESC
+            """)
+    List<Notification> findPageBefore(
+            @Param("user") User user,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id,
+            Pageable pageable);
+
+    @Query("SELECT n.id FROM Notification n WHERE n.isRead = true AND n.createdAt < :cutoff")
+    List<UUID> findReadIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user = :user AND n.isRead = false")
+    int markAllAsReadByUser(@Param("user") User user);
 }
\ No newline at end of file
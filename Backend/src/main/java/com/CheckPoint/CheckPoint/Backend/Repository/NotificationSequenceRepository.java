@@ -0,0 +1,31 @@
+package com.CheckPoint.CheckPoint.Backend.Repository;
+
+import com.CheckPoint.CheckPoint.Backend.Model.NotificationSequence;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface NotificationSequenceRepository extends JpaRepository<NotificationSequence, UUID> {
+
+    // Creates the counter on first use and locks the row until commit, without a second
+    // transaction; no flush, so notifications are inserted once their sequence is set
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(value = """
+                INSERT INTO notification_sequences (user_id, last_sequence) VALUES (:userId, :count)
+                ON DUPLICATE KEY UPDATE last_sequence = last_sequence + :count
+            """, nativeQuery = true)
+    int advance(@Param("userId") UUID userId, @Param("count") long count);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT s.lastSequence FROM NotificationSequence s WHERE s.userId = :userId")
+    long findLastSequence(@Param("userId") UUID userId);
+}
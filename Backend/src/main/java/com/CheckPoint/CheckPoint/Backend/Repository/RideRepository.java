@@ -4,6 +4,7 @@ import com.CheckPoint.CheckPoint.Backend.Model.Ride;
 import com.CheckPoint.CheckPoint.Backend.Model.RideStatus;
 import com.CheckPoint.CheckPoint.Backend.Model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -16,6 +17,19 @@ public interface RideRepository extends JpaRepository<Ride, UUID> {
 
     List<Ride> findByDriverAndStatusOrderByCreatedAtDesc(User driver, RideStatus status);
 
+    @Modifying
+    @Query("""
+                UPDATE Ride r
+                SET r.availableSeats = r.availableSeats - 1, r.status = :reservedStatus
+                WHERE r.id = :rideId
+                AND r.status = :expectedStatus
+                AND r.availableSeats > 0
+            """)
+    int reserveSeat(
+            @Param("rideId") UUID rideId,
+            @Param("expectedStatus") RideStatus expectedStatus,
+            @Param("reservedStatus") RideStatus reservedStatus);
+
     @Query("""
                 SELECT r FROM Ride r
                 WHERE r.status = 'AVAILABLE'
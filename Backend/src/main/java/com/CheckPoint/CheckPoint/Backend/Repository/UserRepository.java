@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,6 +23,13 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     boolean existsById(UUID uuid);
 
     @Modifying
-    @Query("UPDATE User u SET u.lastLogin = :lastLogin WHERE u.email = :email")
-    void updateLastLoginByEmail(@Param("email") String email, @Param("lastLogin") LocalDateTime lastLogin);
+    @Query("UPDATE User u SET u.password = :password, u.updatedAt = local datetime WHERE u.id = :id")
+    int updatePasswordById(@Param("id") UUID id, @Param("password") String password);
+
+    @Query("SELECT u.id FROM User u WHERE u.updatedAt > :since")
+    List<UUID> findIdsUpdatedAfter(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("UPDATE User u SET u.lastLogin = :lastLogin WHERE u.id = :id AND (u.lastLogin IS NULL OR u.lastLogin < :lastLogin)")
+    int updateLastLoginById(@Param("id") UUID id, @Param("lastLogin") LocalDateTime lastLogin);
 }
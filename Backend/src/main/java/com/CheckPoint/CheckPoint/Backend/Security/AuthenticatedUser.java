@@ -0,0 +1,82 @@
+package com.CheckPoint.CheckPoint.Backend.Security;
+
+import com.CheckPoint.CheckPoint.Backend.Model.User;
+import com.CheckPoint.CheckPoint.Backend.Service.UserCache;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Caller identity rebuilt from signed token claims, without touching the database.
+ */
+public final class AuthenticatedUser implements Principal {
+
+    private final UUID id;
+    private final String email;
+    private final String name;
+    private final List<String> roles;
+    private final int tokenVersion;
+
+    public AuthenticatedUser(UUID id, String email, String name, List<String> roles, int tokenVersion) {
+        this.id = id;
+        this.email = email;
+        this.name = name;
+        this.roles = List.copyOf(roles);
+        this.tokenVersion = tokenVersion;
+    }
+
+    // Tokens issued before identity claims were added carry no version, which reads as 0
+    static AuthenticatedUser legacy(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getFirstName(), List.of(), 0);
+    }
+
+    /**
+     * False once the account is disabled or locked, its email has changed, or its token version
+     * has moved past this token's.
+     */
+    public boolean isCurrentFor(UserCache.AccountState account) {
+        return account.usable()
+                && account.email().equals(email)
+                && account.tokenVersion() == tokenVersion;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getDisplayName() {
+        return name;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return roles.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    // Principal name stays the email so STOMP user destinations resolve as before
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
@@ -0,0 +1,87 @@
+package com.CheckPoint.CheckPoint.Backend.Security;
+
+import com.CheckPoint.CheckPoint.Backend.Exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * BCrypt confined to a fixed-size worker pool. Request threads wait for the result, but at
+ * most pool-size hashes burn CPU at once, and callers are turned away with a 429 once the
+ * queue is full or the wait exceeds the limit.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolTaskExecutor executor;
+    private final long maxWaitMillis;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(int cost, ThreadPoolTaskExecutor executor, long maxWaitMillis,
+            MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(cost);
+        this.executor = executor;
+        this.maxWaitMillis = maxWaitMillis;
+
+        this.encodeTimer = meterRegistry.timer("security.password.hash", "operation", "encode");
+        this.matchesTimer = meterRegistry.timer("security.password.hash", "operation", "matches");
+        this.rejectedCounter = meterRegistry.counter("security.password.rejected");
+        meterRegistry.gauge("security.password.queued", executor,
+                pool -> pool.getThreadPoolExecutor().getQueue().size());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    // True for hashes below the configured cost; DaoAuthenticationProvider then rehashes on login
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> task, Timer timer) {
+        Future<T> result;
+        try {
+            result = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingBusyException();
+        }
+
+        try {
+            return result.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejectedCounter.increment();
+            throw new PasswordHashingBusyException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.CheckPoint.CheckPoint.Backend.Security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds the caller's User entity to a controller parameter. The authentication principal is the
+ * claims-only AuthenticatedUser; the entity is loaded from UserCache only for handlers that ask
+ * for it. Resolves to null for unauthenticated requests, like {@code @AuthenticationPrincipal}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
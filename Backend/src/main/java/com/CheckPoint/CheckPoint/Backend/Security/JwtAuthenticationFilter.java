@@ -1,6 +1,10 @@
 package com.CheckPoint.CheckPoint.Backend.Security;
 
+import com.CheckPoint.CheckPoint.Backend.Model.User;
+import com.CheckPoint.CheckPoint.Backend.Service.TokenRevocationService;
+import com.CheckPoint.CheckPoint.Backend.Service.UserCache;
 import com.CheckPoint.CheckPoint.Backend.Service.UserService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,7 +15,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.security.core.userdetails.UserDetails;
 
 import java.io.IOException;
 
@@ -24,30 +27,54 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
 
         final String authorizationHeader = request.getHeader("Authorization");
         String email = null;
-        String jwtToken = null;
+        Claims claims = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwtToken = authorizationHeader.substring(7);
+            String jwtToken = authorizationHeader.substring(7);
             try {
-                email = jwtUtil.extractUsername(jwtToken);
+                claims = jwtUtil.parseClaims(jwtToken);
+                email = claims.getSubject();
             } catch (Exception e) {
                 sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired token");
                 return;
             }
+
+            if (tokenRevocationService.isRevoked(claims.getId())) {
+                sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Token has been revoked");
+                return;
+            }
         }
 
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.loadUserByUsername(email);
+            AuthenticatedUser principal = jwtUtil.toPrincipal(claims);
+            boolean valid;
+            if (principal != null) {
+                // Only the cached account state is read; controllers load the User through @CurrentUser
+                valid = userCache.getAccountState(principal.getId())
+                        .map(principal::isCurrentFor)
+                        .orElse(false);
+            } else {
+                User user = (User) userService.loadUserByUsername(email);
+                principal = AuthenticatedUser.legacy(user);
+                valid = jwtUtil.validateToken(claims, user)
+                        && principal.isCurrentFor(UserCache.AccountState.of(user));
+            }
 
-            if (jwtUtil.validateToken(jwtToken, userDetails)) {
+            if (valid) {
                 UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             } else {
@@ -1,8 +1,11 @@
 package com.CheckPoint.CheckPoint.Backend.Security;
 
+import com.CheckPoint.CheckPoint.Backend.Model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
@@ -10,8 +13,11 @@ import org.slf4j.LoggerFactory;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
@@ -19,12 +25,38 @@ public class JwtUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String NAME_CLAIM = "name";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String TOKEN_VERSION_CLAIM = "tv";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    // Both are immutable and thread-safe, so one instance serves every request
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
+    /**
+     * Verifies the signature and expiry in a single parse and returns the claims.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -39,49 +71,73 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parseClaims(token);
     }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(ROLES_CLAIM, roleNames(userDetails.getAuthorities()));
+        if (userDetails instanceof User user) {
+            claims.put(USER_ID_CLAIM, user.getId().toString());
+            claims.put(NAME_CLAIM, user.getFirstName());
+            claims.put(TOKEN_VERSION_CLAIM, user.getTokenVersion());
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
+    /**
+     * Rebuilds the caller from verified claims. Returns null for tokens issued before the
+     * identity claims existed, which callers resolve through the user table instead.
+     */
+    public AuthenticatedUser toPrincipal(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        if (userId == null) {
+            return null;
+        }
+        Number tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        return new AuthenticatedUser(
+                UUID.fromString(userId),
+                claims.getSubject(),
+                claims.get(NAME_CLAIM, String.class),
+                roles == null ? List.of() : roles.stream().map(String::valueOf).toList(),
+                tokenVersion == null ? 0 : tokenVersion.intValue());
+    }
+
+    private List<String> roleNames(Collection<? extends GrantedAuthority> authorities) {
+        if (authorities == null) {
+            return List.of();
+        }
+        return authorities.stream().map(GrantedAuthority::getAuthority).toList();
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(parseClaims(token), userDetails);
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    // The parser has already rejected expired tokens, so only the subject is left to check
+    public Boolean validateToken(Claims claims, UserDetails userDetails) {
+        return claims.getSubject() != null && claims.getSubject().equals(userDetails.getUsername());
     }
 
     public Boolean isTokenValid(String token) {
         try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
+            parseClaims(token);
+            return true;
         } catch (Exception e) {
             return false;
         }
@@ -0,0 +1,202 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Event.BookingStatusChangedEvent;
+import com.CheckPoint.CheckPoint.Backend.Model.Booking;
+import com.CheckPoint.CheckPoint.Backend.Model.BookingStatus;
+import com.CheckPoint.CheckPoint.Backend.Repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+@Service
+public class BookingExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingExpiryService.class);
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 512;
+
+    @Value("${booking.expiry.minutes:15}")
+    private long expiryMinutes;
+
+    @Value("${booking.expiry.batch-size:100}")
+    private int batchSize;
+
+    private final BookingRepository bookingRepository;
+    private final LifecycleStateMachine stateMachine;
+    private final TransactionTemplate transactionTemplate;
+    private final TimerWheel wheel = new TimerWheel(TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+
+    public BookingExpiryService(BookingRepository bookingRepository,
+            LifecycleStateMachine stateMachine,
+            TransactionTemplate transactionTemplate) {
+        this.bookingRepository = bookingRepository;
+        this.stateMachine = stateMachine;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildFromDatabase() {
+        List<Booking> requested = bookingRepository.findByStatus(BookingStatus.REQUESTED);
+        requested.forEach(booking -> schedule(booking.getId(), booking.getCreatedAt()));
+        logger.info("Scheduled expiry for {} pending booking requests", requested.size());
+    }
+
+    public void schedule(UUID bookingId, LocalDateTime requestedAt) {
+        long deadline = requestedAt.plusMinutes(expiryMinutes)
+                .atZone(ZoneId.systemDefault())
+                .toInstant()
+                .toEpochMilli();
+        wheel.schedule(bookingId, deadline);
+    }
+
+    public void cancel(UUID bookingId) {
+        wheel.cancel(bookingId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        Booking booking = event.getBooking();
+        if (event.getNewStatus() == BookingStatus.REQUESTED) {
+            schedule(booking.getId(), booking.getCreatedAt());
+        } else if (event.getPreviousStatus() == BookingStatus.REQUESTED) {
+            cancel(booking.getId());
+        }
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void expireDueBookings() {
+        List<UUID> due = wheel.advance(System.currentTimeMillis());
+
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<UUID> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                expireBatch(batch);
+            } catch (Exception e) {
+                logger.error("Failed to expire {} booking requests, retrying next tick", batch.size(), e);
+                long retryAt = System.currentTimeMillis() + TICK_MILLIS;
+                batch.forEach(id -> wheel.schedule(id, retryAt));
+            }
+        }
+    }
+
+    private void expireBatch(List<UUID> bookingIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Booking> bookings = bookingRepository.findWithPassengerByIdInAndStatus(
+                    bookingIds, BookingStatus.REQUESTED);
+
+            // A driver who answered while this batch was loading keeps the answer, and only
+            // the rows actually changed here are notified
+            int expired = 0;
+            for (Booking booking : bookings) {
+                if (bookingRepository.transitionStatus(booking.getId(),
+                        BookingStatus.REQUESTED, BookingStatus.REJECTED) == 1) {
+                    stateMachine.applied(booking, BookingStatus.REQUESTED, BookingStatus.REJECTED, null);
+                    expired++;
+                }
+            }
+
+            if (expired > 0) {
+                logger.info("Expired {} unanswered booking requests", expired);
+            }
+        });
+    }
+
+    /**
+     * Hashed timer wheel: each bucket holds the timeouts whose deadline tick maps to it,
+     * so scheduling and cancelling are O(1) and a tick only touches one bucket.
+     * Timeouts further out than one revolution simply stay in their bucket until due.
+     */
+    static final class TimerWheel {
+
+        private final long tickMillis;
+        private final List<Queue<Timeout>> buckets;
+        private final int mask;
+        private final Map<UUID, Timeout> pending = new ConcurrentHashMap<>();
+        private volatile long lastTick;
+
+        TimerWheel(long tickMillis, int size, long startMillis) {
+            if (Integer.bitCount(size) != 1) {
+                throw new IllegalArgumentException("Wheel size must be a power of two");
+            }
+            this.tickMillis = tickMillis;
+            this.mask = size - 1;
+            this.buckets = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                buckets.add(new ConcurrentLinkedQueue<>());
+            }
+            this.lastTick = startMillis / tickMillis;
+        }
+
+        void schedule(UUID key, long deadlineMillis) {
+            long deadlineTick = Math.max(deadlineMillis / tickMillis, lastTick + 1);
+            Timeout timeout = new Timeout(key, deadlineTick);
+
+            Timeout previous = pending.put(key, timeout);
+            if (previous != null) {
+                previous.cancelled = true;
+            }
+            buckets.get((int) (deadlineTick & mask)).add(timeout);
+        }
+
+        void cancel(UUID key) {
+            Timeout timeout = pending.remove(key);
+            if (timeout != null) {
+                timeout.cancelled = true;
+            }
+        }
+
+        List<UUID> advance(long nowMillis) {
+            long nowTick = nowMillis / tickMillis;
+            long ticks = Math.min(nowTick - lastTick, buckets.size());
+            List<UUID> expired = new ArrayList<>();
+
+            for (long tick = nowTick - ticks + 1; tick <= nowTick; tick++) {
+                Iterator<Timeout> iterator = buckets.get((int) (tick & mask)).iterator();
+                while (iterator.hasNext()) {
+                    Timeout timeout = iterator.next();
+                    if (timeout.cancelled) {
+                        iterator.remove();
+                    } else if (timeout.deadlineTick <= nowTick) {
+                        iterator.remove();
+                        if (pending.remove(timeout.key, timeout)) {
+                            expired.add(timeout.key);
+                        }
+                    }
+                }
+            }
+
+            lastTick = Math.max(lastTick, nowTick);
+            return expired;
+        }
+
+        private static final class Timeout {
+            private final UUID key;
+            private final long deadlineTick;
+            private volatile boolean cancelled;
+
+            private Timeout(UUID key, long deadlineTick) {
+                this.key = key;
+                this.deadlineTick = deadlineTick;
+            }
+        }
+    }
+}
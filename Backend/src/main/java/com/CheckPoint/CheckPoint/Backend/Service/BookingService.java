@@ -5,6 +5,8 @@ import com.CheckPoint.CheckPoint.Backend.Model.*;
 import com.CheckPoint.CheckPoint.Backend.Repository.BookingRepository;
 import com.CheckPoint.CheckPoint.Backend.Repository.RideRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
@@ -18,55 +20,54 @@ import java.util.UUID;
 @Service
 public class BookingService {
 
+    private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
+
     private final BookingRepository bookingRepository;
     private final RideRepository rideRepository;
     private final SimpMessagingTemplate messagingTemplate;
-    private final NotificationService notificationService;
+    private final LifecycleStateMachine stateMachine;
 
     public BookingService(BookingRepository bookingRepository,
             RideRepository rideRepository,
             SimpMessagingTemplate messagingTemplate,
-            NotificationService notificationService) {
+            LifecycleStateMachine stateMachine) {
         this.bookingRepository = bookingRepository;
         this.rideRepository = rideRepository;
         this.messagingTemplate = messagingTemplate;
-        this.notificationService = notificationService;
+        this.stateMachine = stateMachine;
     }
 
     @Transactional
     public Booking createBooking(UUID rideId, User passenger) {
-        System.out.println(" Creating booking for ride: " + rideId);
-        System.out.println("   Passenger: " + passenger.getEmail());
+        logger.debug("Creating booking for ride {} by {}", rideId, passenger.getEmail());
 
         Ride ride = rideRepository.findById(rideId)
                 .orElseThrow(() -> new EntityNotFoundException("Ride not found with id: " + rideId));
 
-        System.out.println("   Ride driver: " + ride.getDriver().getEmail());
-        System.out.println("   Ride status: " + ride.getStatus());
-        System.out.println("   Available seats: " + ride.getAvailableSeats());
-
         if (ride.getDriver().getId().equals(passenger.getId())) {
-            System.out.println(" ERROR: Driver trying to book own ride!");
+            logger.debug("Rejected booking of ride {}: passenger is the driver", rideId);
             throw new IllegalStateException("You cannot book your own ride.");
         }
 
         if (ride.getStatus() != RideStatus.AVAILABLE) {
-            System.out.println(" ERROR: Ride status is " + ride.getStatus() + ", not AVAILABLE");
+            logger.debug("Rejected booking of ride {}: status is {}", rideId, ride.getStatus());
             throw new IllegalStateException("This ride is no longer available for booking.");
         }
 
         if (ride.getAvailableSeats() <= 0) {
-            System.out.println(" ERROR: No seats available!");
+            logger.debug("Rejected booking of ride {}: no seats available", rideId);
             throw new IllegalStateException("This ride has no available seats.");
         }
 
         Optional<Booking> existingBooking = bookingRepository.findByRideAndPassenger(ride, passenger);
         if (existingBooking.isPresent()) {
-            System.out.println(" ERROR: Passenger already booked this ride!");
+            logger.debug("Rejected booking of ride {}: already booked by {}", rideId, passenger.getEmail());
             throw new IllegalStateException("You have already booked this ride.");
         }
 
-        System.out.println(" All validations passed, creating booking...");
+        if (Boolean.TRUE.equals(ride.getInstantBook())) {
+            return createInstantBooking(ride, passenger);
+        }
 
         Booking newBooking = new Booking();
         newBooking.setRide(ride);
@@ -75,72 +76,73 @@ public class BookingService {
 
         Booking savedBooking = bookingRepository.save(newBooking);
 
-        System.out.println(" Booking created successfully: " + savedBooking.getId());
+        logger.info("Booking {} requested for ride {}", savedBooking.getId(), rideId);
+
+        stateMachine.created(savedBooking, passenger);
+
+        return savedBooking;
+    }
+
+    private Booking createInstantBooking(Ride ride, User passenger) {
+        int reserved = rideRepository.reserveSeat(ride.getId(), RideStatus.AVAILABLE, RideStatus.CONFIRMED);
+        if (reserved == 0) {
+            throw new IllegalStateException("This ride has no available seats.");
+        }
+        // The bulk update bypassed the managed ride; the row stays locked until commit, so these
+        // are the values it now holds
+        ride.setAvailableSeats(ride.getAvailableSeats() - 1);
+        ride.setStatus(RideStatus.CONFIRMED);
+
+        Booking newBooking = new Booking();
+        newBooking.setRide(ride);
+        newBooking.setPassenger(passenger);
+        newBooking.setStatus(BookingStatus.ACCEPTED);
+
+        Booking savedBooking = bookingRepository.save(newBooking);
+        logger.info("Booking {} instantly accepted for ride {}", savedBooking.getId(), ride.getId());
 
-        notificationService.createAndSendNotification(
-                ride.getDriver(),
-                NotificationType.BOOKING_REQUEST,
-                "New Booking Request",
-                passenger.getFirstName() + " wants to ride with you",
-                ride.getId(),
-                savedBooking.getId());
+        stateMachine.applied(ride, RideStatus.AVAILABLE, RideStatus.CONFIRMED, passenger);
+        stateMachine.created(savedBooking, passenger);
 
         return savedBooking;
     }
 
     @Transactional
     public Booking updateBookingStatus(UUID bookingId, UpdateBookingStatusRequest request, User driver) {
-        System.out.println("🔄 Updating booking status: " + bookingId);
-        System.out.println("   Driver: " + driver.getEmail());
-        System.out.println("   Requested status: " + request.getStatus());
+        logger.debug("Updating booking {} to {} by {}", bookingId, request.getStatus(), driver.getEmail());
 
-        Booking booking = bookingRepository.findById(bookingId)
+        // Locked so the status read here cannot be changed by an expiry before this commits
+        Booking booking = bookingRepository.findByIdForUpdate(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
 
         Ride ride = booking.getRide();
 
         if (!ride.getDriver().getId().equals(driver.getId())) {
-            System.out.println(" Unauthorized: Not the driver of this ride");
+            logger.warn("Rejected status change of booking {}: {} is not the driver", bookingId, driver.getEmail());
             throw new RuntimeException("You are not authorized to modify this booking");
         }
 
-        if (booking.getStatus() != BookingStatus.REQUESTED) {
-            System.out.println(" Booking already processed");
-            System.out.println("   Current status: " + booking.getStatus());
-            throw new IllegalStateException(
-                    "This booking has already been " + booking.getStatus().name().toLowerCase() +
-                            ". Current status: " + booking.getStatus());
+        BookingStatus newStatus = BookingStatus.valueOf(request.getStatus().toUpperCase());
+        if (newStatus != BookingStatus.ACCEPTED && newStatus != BookingStatus.REJECTED) {
+            throw new IllegalArgumentException("A booking can only be accepted or rejected");
         }
 
-        System.out.println("Booking status valid, updating...");
+        if (newStatus == BookingStatus.ACCEPTED && ride.getStatus() != RideStatus.CONFIRMED) {
+            stateMachine.requireTransition(ride.getStatus(), RideStatus.CONFIRMED);
+        }
 
-        BookingStatus newStatus = BookingStatus.valueOf(request.getStatus().toUpperCase());
-        booking.setStatus(newStatus);
+        stateMachine.transition(booking, newStatus, driver);
         Booking savedBooking = bookingRepository.save(booking);
 
         if (newStatus == BookingStatus.ACCEPTED) {
-            ride.setStatus(RideStatus.CONFIRMED);
             ride.setAvailableSeats(ride.getAvailableSeats() - 1);
+            if (ride.getStatus() != RideStatus.CONFIRMED) {
+                stateMachine.transition(ride, RideStatus.CONFIRMED, driver);
+            }
             rideRepository.save(ride);
-
-            notificationService.createAndSendNotification(
-                    booking.getPassenger(),
-                    NotificationType.BOOKING_CONFIRMED,
-                    "Booking Confirmed!",
-                    "Your ride request has been accepted by " + driver.getFirstName(),
-                    ride.getId(),
-                    booking.getId());
-        } else if (newStatus == BookingStatus.REJECTED) {
-            notificationService.createAndSendNotification(
-                    booking.getPassenger(),
-                    NotificationType.BOOKING_REJECTED,
-                    "Booking Rejected",
-                    "Your ride request was declined",
-                    ride.getId(),
-                    booking.getId());
         }
 
-        System.out.println(" Booking updated successfully to: " + newStatus);
+        logger.info("Booking {} updated to {}", bookingId, newStatus);
         return savedBooking;
     }
 
@@ -164,39 +166,4 @@ public class BookingService {
 
         return allBookings;
     }
-
-    private void sendBookingRequestNotification(Booking booking) {
-        User driver = booking.getRide().getDriver();
-        String title = "New Ride Request";
-        String message = booking.getPassenger().getFirstName() + " " +
-                booking.getPassenger().getLastName() +
-                " wants to book your ride";
-
-        notificationService.createAndSendNotification(
-                driver,
-                NotificationType.BOOKING_REQUEST,
-                title,
-                message,
-                booking.getRide().getId(),
-                booking.getId());
-    }
-
-    private void sendBookingResponseNotification(Booking booking, String type, String message) {
-        User passenger = booking.getPassenger();
-        NotificationType notificationType = type.equals("BOOKING_ACCEPTED")
-                ? NotificationType.BOOKING_ACCEPTED
-                : NotificationType.BOOKING_REJECTED;
-
-        String title = type.equals("BOOKING_ACCEPTED")
-                ? "Booking Accepted"
-                : "Booking Rejected";
-
-        notificationService.createAndSendNotification(
-                passenger,
-                notificationType,
-                title,
-                message,
-                booking.getRide().getId(),
-                booking.getId());
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import java.util.UUID;
+
+/**
+ * What the chat send path needs to know about a booking's room: where it lives, who may post in
+ * it and the next message sequence. Participants never change for a booking, so a descriptor
+ * stays valid for as long as it is cached. The room id is null only on the uncached descriptors
+ * that read paths get for a booking whose room does not exist yet.
+ */
+final class ChatRoomDescriptor {
+
+    private final UUID roomId;
+    private final UUID bookingId;
+    private final UUID passengerId;
+    private final UUID driverId;
+
+    // Guarded by this descriptor's monitor, which also serialises sends to the room
+    private long lastSeq;
+
+    ChatRoomDescriptor(UUID roomId, UUID bookingId, UUID passengerId, UUID driverId, long lastSeq) {
+        this.roomId = roomId;
+        this.bookingId = bookingId;
+        this.passengerId = passengerId;
+        this.driverId = driverId;
+        this.lastSeq = lastSeq;
+    }
+
+    UUID getRoomId() {
+        return roomId;
+    }
+
+    UUID getBookingId() {
+        return bookingId;
+    }
+
+    UUID getPassengerId() {
+        return passengerId;
+    }
+
+    UUID getDriverId() {
+        return driverId;
+    }
+
+    boolean isParticipant(UUID userId) {
+        return passengerId.equals(userId) || driverId.equals(userId);
+    }
+
+    boolean isDriver(UUID userId) {
+        return driverId.equals(userId);
+    }
+
+    synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    long nextSeq() {
+        return ++lastSeq;
+    }
+
+    void resetSeq(long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+}
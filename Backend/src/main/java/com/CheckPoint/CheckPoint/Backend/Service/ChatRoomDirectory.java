@@ -0,0 +1,185 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.DTO.BookingParticipants;
+import com.CheckPoint.CheckPoint.Backend.Model.ChatRoom;
+import com.CheckPoint.CheckPoint.Backend.Repository.BookingRepository;
+import com.CheckPoint.CheckPoint.Backend.Repository.ChatMessageRepository;
+import com.CheckPoint.CheckPoint.Backend.Repository.ChatRoomRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Size-bounded cache of room descriptors by booking id, so chat sends authorise and route in
+ * memory. A miss costs the participants projection, the room id lookup and the room's highest
+ * sequence. Only the send path creates a missing room.
+ *
+ * <p>A single node numbers each room in memory. With the broker relay enabled several nodes send
+ * to the same room, so sequences are allocated on the room row instead and the descriptor only
+ * remembers the last one this node has seen.
+ */
+@Component
+public class ChatRoomDirectory {
+
+    private final BookingRepository bookingRepository;
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean clusterWide;
+    private final Map<UUID, ChatRoomDescriptor> rooms;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public ChatRoomDirectory(BookingRepository bookingRepository,
+            ChatRoomRepository chatRoomRepository,
+            ChatMessageRepository chatMessageRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${chat.room-cache.max-size:10000}") int maxSize,
+            @Value("${websocket.broker.relay.enabled:false}") boolean clusterWide) {
+        this.bookingRepository = bookingRepository;
+        this.chatRoomRepository = chatRoomRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.clusterWide = clusterWide;
+        this.rooms = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, ChatRoomDescriptor> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        this.hits = meterRegistry.counter("chat.rooms.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("chat.rooms.cache.requests", "result", "miss");
+        Gauge.builder("chat.rooms.cache.size", this, directory -> directory.size()).register(meterRegistry);
+    }
+
+    ChatRoomDescriptor get(UUID bookingId) {
+        ChatRoomDescriptor cached = cached(bookingId);
+        if (cached != null) {
+            return cached;
+        }
+
+        misses.increment();
+        return cache(load(bookingId, true));
+    }
+
+    /**
+     * For read paths, which must not create the room: a booking nobody has written in yet gets a
+     * descriptor without a room id, and that one is not cached.
+     */
+    ChatRoomDescriptor find(UUID bookingId) {
+        ChatRoomDescriptor cached = cached(bookingId);
+        if (cached != null) {
+            return cached;
+        }
+
+        misses.increment();
+        ChatRoomDescriptor loaded = load(bookingId, false);
+        return loaded.getRoomId() == null ? loaded : cache(loaded);
+    }
+
+    // Called under the room's monitor, like every other change to its sequence
+    long nextSeq(ChatRoomDescriptor room) {
+        if (!clusterWide) {
+            return room.nextSeq();
+        }
+        long floor = room.getLastSeq();
+        Long seq = transactionTemplate.execute(status -> {
+            chatRoomRepository.advanceLastSeq(room.getRoomId(), floor);
+            return chatRoomRepository.findLastSeq(room.getRoomId())
+                    .orElseThrow(() -> new RuntimeException("Chat room not found"));
+        });
+        room.resetSeq(seq);
+        return seq;
+    }
+
+    /**
+     * The room's last sequence, for checking a seq a client reports. In relay mode a claim past
+     * what this node has seen may be a message numbered on another node, so it is checked against
+     * the room row.
+     */
+    long lastSeq(ChatRoomDescriptor room, long claimed) {
+        long known = room.getLastSeq();
+        if (!clusterWide || claimed <= known || room.getRoomId() == null) {
+            return known;
+        }
+        long stored = chatRoomRepository.findLastSeq(room.getRoomId()).orElse(0L);
+        synchronized (room) {
+            if (stored > room.getLastSeq()) {
+                room.resetSeq(stored);
+            }
+            return room.getLastSeq();
+        }
+    }
+
+    // Re-reads the room's highest sequence, after another node or the backfill has written past ours
+    void resync(ChatRoomDescriptor room) {
+        Long maxSeq = chatMessageRepository.findMaxSeq(room.getRoomId());
+        room.resetSeq(maxSeq == null ? 0 : maxSeq);
+    }
+
+    private ChatRoomDescriptor cached(UUID bookingId) {
+        synchronized (rooms) {
+            ChatRoomDescriptor cached = rooms.get(bookingId);
+            if (cached != null) {
+                hits.increment();
+            }
+            return cached;
+        }
+    }
+
+    private ChatRoomDescriptor cache(ChatRoomDescriptor loaded) {
+        synchronized (rooms) {
+            // Two concurrent misses must share one descriptor, since it also orders the room's sends
+            return rooms.computeIfAbsent(loaded.getBookingId(), id -> loaded);
+        }
+    }
+
+    private ChatRoomDescriptor load(UUID bookingId, boolean createRoom) {
+        BookingParticipants participants = bookingRepository.findParticipants(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
+
+        UUID roomId = chatRoomRepository.findIdByBookingId(bookingId).orElse(null);
+        if (roomId == null) {
+            if (!createRoom) {
+                return new ChatRoomDescriptor(null, bookingId, participants.getPassengerId(),
+                        participants.getDriverId(), 0);
+            }
+            roomId = createRoom(bookingId);
+        }
+        Long maxSeq = chatMessageRepository.findMaxSeq(roomId);
+
+        return new ChatRoomDescriptor(roomId, bookingId, participants.getPassengerId(),
+                participants.getDriverId(), maxSeq == null ? 0 : maxSeq);
+    }
+
+    private UUID createRoom(UUID bookingId) {
+        try {
+            return transactionTemplate.execute(status -> {
+                ChatRoom room = new ChatRoom();
+                room.setBooking(bookingRepository.getReferenceById(bookingId));
+                return chatRoomRepository.save(room).getId();
+            });
+        } catch (DataIntegrityViolationException e) {
+            // booking_id is unique: another request created the room first
+            return chatRoomRepository.findIdByBookingId(bookingId)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private int size() {
+        synchronized (rooms) {
+            return rooms.size();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over chat message text. New messages go into a mutable segment that
+ * is sealed into a sorted, immutable one every {@code segmentSize} documents; sealed segments are
+ * merged back down to {@code maxSegments}. Document ids grow with insertion order, so every
+ * posting list is sorted and higher ids are newer messages.
+ */
+@Component
+public class ChatSearchIndex {
+
+    static final int MIN_TERM_LENGTH = 2;
+    static final int MAX_TERM_LENGTH = 32;
+
+    private final int segmentSize;
+    private final int maxSegments;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private IndexState state = new IndexState();
+    private List<IndexedMessage> indexedDuringRebuild;
+
+    public ChatSearchIndex(@Value("${chat.search.segment-size:10000}") int segmentSize,
+            @Value("${chat.search.max-segments:8}") int maxSegments) {
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+    }
+
+    public void add(IndexedMessage message) {
+        lock.writeLock().lock();
+        try {
+            addTo(state, message);
+            if (indexedDuringRebuild != null) {
+                indexedDuringRebuild.add(message);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Message ids containing every term of the query, in the given rooms, newest first. Segments
+     * are searched one at a time from the active one back, so a search stops at the segment that
+     * fills the limit and never builds a posting list for the whole index.
+     */
+    public List<UUID> search(String query, Set<UUID> roomIds, int limit) {
+        Set<String> terms = tokenize(query);
+        if (terms.isEmpty() || roomIds.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<UUID> messageIds = new ArrayList<>();
+            for (int s = state.sealed.size(); s >= 0 && messageIds.size() < limit; s--) {
+                Segment segment = s < state.sealed.size() ? state.sealed.get(s) : null;
+                int[] matches = matches(terms, roomIds, segment);
+                for (int i = matches.length - 1; i >= 0 && messageIds.size() < limit; i--) {
+                    messageIds.add(state.docs.get(matches[i]).messageId());
+                }
+            }
+            return messageIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merges adjacent sealed segments, smallest pair first, until at most {@code maxSegments}
+     * remain. The merge is built outside the write lock and only swapped in if the segments it
+     * replaces are still current.
+     */
+    public int mergeSegments() {
+        int merges = 0;
+        while (true) {
+            IndexState current;
+            List<Segment> sealed;
+            lock.readLock().lock();
+            try {
+                current = state;
+                sealed = List.copyOf(current.sealed);
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (sealed.size() <= maxSegments) {
+                return merges;
+            }
+
+            int smallest = 0;
+            for (int i = 1; i < sealed.size() - 1; i++) {
+                if (sealed.get(i).size() + sealed.get(i + 1).size()
+                        < sealed.get(smallest).size() + sealed.get(smallest + 1).size()) {
+                    smallest = i;
+                }
+            }
+            Segment left = sealed.get(smallest);
+            Segment right = sealed.get(smallest + 1);
+            Segment merged = Segment.merge(left, right);
+
+            lock.writeLock().lock();
+            try {
+                int position = current.sealed.indexOf(left);
+                if (state != current || position < 0 || position + 1 >= current.sealed.size()
+                        || current.sealed.get(position + 1) != right) {
+                    continue;
+                }
+                current.sealed.set(position, merged);
+                current.sealed.remove(position + 1);
+                merges++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Starts a rebuild; messages added meanwhile are replayed into the new state when it is
+     * installed, so nothing persisted during a reindex goes missing.
+     */
+    public Rebuild startRebuild() {
+        lock.writeLock().lock();
+        try {
+            indexedDuringRebuild = new ArrayList<>();
+            return new Rebuild();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public IndexStats stats() {
+        lock.readLock().lock();
+        try {
+            return new IndexStats(state.docs.size(), state.sealed.size(), state.activeDocs);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Doc ids in one segment, or in the active one when segment is null, that match every term in the rooms
+    private int[] matches(Set<String> terms, Set<UUID> roomIds, Segment segment) {
+        List<int[]> postings = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            int[] termPostings = segment != null ? segment.postings(term) : state.activePostings(term);
+            if (termPostings.length == 0) {
+                return termPostings;
+            }
+            postings.add(termPostings);
+        }
+        // Rarest term first keeps every intersection no larger than the smallest list, and the
+        // room filter runs on that list before anything else is walked
+        postings.sort(Comparator.comparingInt(list -> list.length));
+        int[] matches = inRooms(postings.get(0), roomIds);
+        for (int i = 1; i < postings.size() && matches.length > 0; i++) {
+            matches = intersect(matches, postings.get(i));
+        }
+        return matches;
+    }
+
+    private int[] inRooms(int[] docIds, Set<UUID> roomIds) {
+        int[] result = new int[docIds.length];
+        int n = 0;
+        for (int docId : docIds) {
+            if (roomIds.contains(state.docs.get(docId).roomId())) {
+                result[n++] = docId;
+            }
+        }
+        return n == docIds.length ? docIds : Arrays.copyOf(result, n);
+    }
+
+    private void addTo(IndexState target, IndexedMessage message) {
+        if (target.docIdsByMessage.containsKey(message.messageId())) {
+            return;
+        }
+        int docId = target.docs.size();
+        target.docs.add(new Doc(message.messageId(), message.roomId()));
+        target.docIdsByMessage.put(message.messageId(), docId);
+        for (String term : tokenize(message.text())) {
+            target.active.computeIfAbsent(term, t -> new IntList()).add(docId);
+        }
+        if (++target.activeDocs >= segmentSize) {
+            target.sealed.add(Segment.of(target.active));
+            target.active = new HashMap<>();
+            target.activeDocs = 0;
+        }
+    }
+
+    // Lower-cased runs of letters and digits; very short and very long runs are not useful terms
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                int length = i - start;
+                if (length >= MIN_TERM_LENGTH && length <= MAX_TERM_LENGTH) {
+                    terms.add(lower.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    public record IndexedMessage(UUID messageId, UUID roomId, String text) {
+    }
+
+    public record IndexStats(int documents, int sealedSegments, int activeDocuments) {
+    }
+
+    // The text is only needed to extract terms; documents keep just what a hit has to report
+    private record Doc(UUID messageId, UUID roomId) {
+    }
+
+    /**
+     * A state built off to the side of the live one.
+     */
+    public final class Rebuild {
+
+        private final IndexState target = new IndexState();
+
+        private Rebuild() {
+        }
+
+        public void add(IndexedMessage message) {
+            addTo(target, message);
+        }
+
+        public void install() {
+            lock.writeLock().lock();
+            try {
+                if (indexedDuringRebuild != null) {
+                    indexedDuringRebuild.forEach(message -> addTo(target, message));
+                }
+                indexedDuringRebuild = null;
+                state = target;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        public void abandon() {
+            lock.writeLock().lock();
+            try {
+                indexedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static final class IndexState {
+
+        private final List<Doc> docs = new ArrayList<>();
+        private final Map<UUID, Integer> docIdsByMessage = new HashMap<>();
+        private final List<Segment> sealed = new ArrayList<>();
+        private Map<String, IntList> active = new HashMap<>();
+        private int activeDocs;
+
+        // Active documents are newer than every sealed segment
+        private int[] activePostings(String term) {
+            IntList activePostings = active.get(term);
+            return activePostings != null ? activePostings.toArray() : new int[0];
+        }
+    }
+
+    static final class Segment {
+
+        private final String[] terms;
+        private final int[][] postings;
+        private final int size;
+
+        private Segment(String[] terms, int[][] postings) {
+            this.terms = terms;
+            this.postings = postings;
+            int total = 0;
+            for (int[] list : postings) {
+                total += list.length;
+            }
+            this.size = total;
+        }
+
+        static Segment of(Map<String, IntList> active) {
+            String[] terms = active.keySet().toArray(new String[0]);
+            Arrays.sort(terms);
+            int[][] postings = new int[terms.length][];
+            for (int i = 0; i < terms.length; i++) {
+                postings[i] = active.get(terms[i]).toArray();
+            }
+            return new Segment(terms, postings);
+        }
+
+        // Left holds the older documents, so its postings come first for every shared term
+        static Segment merge(Segment left, Segment right) {
+            Map<String, IntList> merged = new TreeMap<>();
+            for (Segment segment : List.of(left, right)) {
+                for (int i = 0; i < segment.terms.length; i++) {
+                    merged.computeIfAbsent(segment.terms[i], t -> new IntList()).addAll(segment.postings[i]);
+                }
+            }
+            return of(merged);
+        }
+
+        int[] postings(String term) {
+            int index = Arrays.binarySearch(terms, term);
+            return index < 0 ? new int[0] : postings[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(int[] more) {
+            if (size + more.length > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + more.length));
+            }
+            System.arraycopy(more, 0, values, size, more.length);
+            size += more.length;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Model.ChatMessage;
+import com.CheckPoint.CheckPoint.Backend.Repository.ChatMessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Builds the chat search index from the database at startup and keeps its segment count down.
+ * Also exposed as the {@code chatsearch} actuator endpoint: GET for index stats, POST to reindex.
+ *
+ * <p>Each node indexes the messages it writes itself. With the broker relay enabled it also polls
+ * for messages written by other nodes; one that took longer than the overlap window to be written
+ * is only found by the next reindex.
+ */
+@Component
+@Endpoint(id = "chatsearch")
+public class ChatSearchIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatSearchIndexer.class);
+
+    // Write-behind inserts a message a little after its sentAt, so each poll re-reads this far back
+    private static final long CATCH_UP_OVERLAP_SECONDS = 120;
+
+    private final ChatSearchIndex chatSearchIndex;
+    private final ChatMessageRepository chatMessageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int pageSize;
+    private final boolean clusterWide;
+    private final AtomicBoolean reindexing = new AtomicBoolean();
+    private volatile LocalDateTime caughtUpTo = LocalDateTime.now();
+
+    public ChatSearchIndexer(ChatSearchIndex chatSearchIndex,
+            ChatMessageRepository chatMessageRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${chat.search.reindex-page-size:1000}") int pageSize,
+            @Value("${websocket.broker.relay.enabled:false}") boolean clusterWide) {
+        this.chatSearchIndex = chatSearchIndex;
+        this.chatMessageRepository = chatMessageRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.pageSize = pageSize;
+        this.clusterWide = clusterWide;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexOnStartup() {
+        reindex();
+    }
+
+    @Scheduled(fixedDelayString = "${chat.search.merge-millis:60000}")
+    public void mergeSegments() {
+        int merges = chatSearchIndex.mergeSegments();
+        if (merges > 0) {
+            logger.debug("Merged {} chat search segment pairs", merges);
+        }
+    }
+
+    // Messages already in the index are skipped, so the overlap costs a read but no work
+    @Scheduled(fixedDelayString = "${chat.search.catch-up-millis:5000}")
+    public void catchUp() {
+        if (!clusterWide || reindexing.get()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = caughtUpTo.minusSeconds(CATCH_UP_OVERLAP_SECONDS);
+        ChatMessage last = null;
+        while (true) {
+            ChatMessage after = last;
+            List<ChatMessage> page = transactionTemplate.execute(status -> after == null
+                    ? chatMessageRepository.findBySentAtAfterOrderBySentAtAscIdAsc(since, PageRequest.of(0, pageSize))
+                    : chatMessageRepository.findIndexPageAfter(after.getSentAt(), after.getId(),
+                            PageRequest.of(0, pageSize)));
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            for (ChatMessage message : page) {
+                chatSearchIndex.add(new ChatSearchIndex.IndexedMessage(
+                        message.getId(), message.getChatRoom().getId(), message.getMessage()));
+            }
+            last = page.get(page.size() - 1);
+        }
+        caughtUpTo = now;
+    }
+
+    @ReadOperation
+    public ChatSearchIndex.IndexStats stats() {
+        return chatSearchIndex.stats();
+    }
+
+    /**
+     * Rebuilds the index from chat_messages, keyset-paged in send order. Search keeps answering
+     * from the old index until the new one is installed. Returns the number of messages read, or
+     * -1 when a reindex is already running.
+     */
+    @WriteOperation
+    public int reindex() {
+        if (!reindexing.compareAndSet(false, true)) {
+            return -1;
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        ChatSearchIndex.Rebuild rebuild = chatSearchIndex.startRebuild();
+        int indexed = 0;
+        try {
+            ChatMessage last = null;
+            while (true) {
+                ChatMessage after = last;
+                // One short read-only transaction per page keeps the persistence context small
+                List<ChatMessage> page = transactionTemplate.execute(status -> after == null
+                        ? chatMessageRepository.findAllByOrderBySentAtAscIdAsc(PageRequest.of(0, pageSize))
+                        : chatMessageRepository.findIndexPageAfter(after.getSentAt(), after.getId(),
+                                PageRequest.of(0, pageSize)));
+                if (page == null || page.isEmpty()) {
+                    break;
+                }
+                for (ChatMessage message : page) {
+                    rebuild.add(new ChatSearchIndex.IndexedMessage(
+                            message.getId(), message.getChatRoom().getId(), message.getMessage()));
+                }
+                indexed += page.size();
+                last = page.get(page.size() - 1);
+            }
+
+            rebuild.install();
+            caughtUpTo = startedAt;
+            chatSearchIndex.mergeSegments();
+            logger.info("Indexed {} chat messages for search", indexed);
+            return indexed;
+        } catch (RuntimeException e) {
+            rebuild.abandon();
+            logger.error("Chat search reindex failed after {} messages", indexed, e);
+            throw e;
+        } finally {
+            reindexing.set(false);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Model.ChatMessage;
+import com.CheckPoint.CheckPoint.Backend.Model.ChatRoom;
+import com.CheckPoint.CheckPoint.Backend.Repository.ChatMessageRepository;
+import com.CheckPoint.CheckPoint.Backend.Repository.ChatRoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Numbers messages written before rooms kept a sequence, in send order, so they show up in
+ * seq-based history pages. A no-op once every message has one.
+ */
+@Component
+public class ChatSequenceBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatSequenceBackfill.class);
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ChatSequenceBackfill(ChatRoomRepository chatRoomRepository,
+            ChatMessageRepository chatMessageRepository,
+            TransactionTemplate transactionTemplate) {
+        this.chatRoomRepository = chatRoomRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<UUID> roomIds = chatMessageRepository.findRoomIdsWithUnsequencedMessages();
+        for (UUID roomId : roomIds) {
+            // One transaction per room keeps the room lock short; the lock keeps other nodes'
+            // backfills out, and live sends that collide on a seq resync and retry
+            transactionTemplate.executeWithoutResult(status -> {
+                ChatRoom room = chatRoomRepository.findByIdForUpdate(roomId).orElse(null);
+                if (room == null) {
+                    return;
+                }
+                List<ChatMessage> messages = chatMessageRepository.findByChatRoom_IdAndSeqIsNullOrderBySentAtAsc(roomId);
+                Long maxSeq = chatMessageRepository.findMaxSeq(roomId);
+                // In relay mode seqs handed out but not yet written are only on the room row
+                long seq = Math.max(maxSeq == null ? 0 : maxSeq, room.getLastSeq());
+                for (ChatMessage message : messages) {
+                    message.setSeq(++seq);
+                }
+                room.setLastSeq(seq);
+            });
+        }
+        if (!roomIds.isEmpty()) {
+            logger.info("Backfilled chat sequences for {} rooms", roomIds.size());
+        }
+    }
+}
@@ -1,88 +1,118 @@
 package com.CheckPoint.CheckPoint.Backend.Service;
 
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatHistoryPageResponse;
 import com.CheckPoint.CheckPoint.Backend.DTO.ChatMessageResponseDTO;
-import com.CheckPoint.CheckPoint.Backend.Model.Booking;
-import com.CheckPoint.CheckPoint.Backend.Model.ChatMessage;
-import com.CheckPoint.CheckPoint.Backend.Model.ChatRoom;
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatSearchHit;
 import com.CheckPoint.CheckPoint.Backend.Model.User;
-import com.CheckPoint.CheckPoint.Backend.Repository.BookingRepository;
 import com.CheckPoint.CheckPoint.Backend.Repository.ChatMessageRepository;
 import com.CheckPoint.CheckPoint.Backend.Repository.ChatRoomRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class ChatService {
-        private final BookingRepository bookingRepo;
+        private static final int MAX_PAGE_SIZE = 100;
+
         private final ChatRoomRepository chatRoomRepo;
         private final ChatMessageRepository chatMessageRepo;
-
-        @Transactional
-        public ChatMessageResponseDTO sendMessage(UUID bookingId, User sender, String message) {
-                Booking booking = bookingRepo.findById(bookingId)
-                                .orElseThrow(() -> new RuntimeException("Booking not found"));
-
-                UUID passengerId = booking.getPassenger().getId();
-                UUID driverId = booking.getRide().getDriver().getId();
-
-                if (!sender.getId().equals(passengerId) && !sender.getId().equals(driverId)) {
-                        throw new RuntimeException("Unauthorized chat access");
+        private final ChatSearchIndex chatSearchIndex;
+        private final ChatRoomDirectory chatRoomDirectory;
+        private final ChatWriteBehind chatWriteBehind;
+        private final SimpMessagingTemplate messagingTemplate;
+
+        /**
+         * Numbers the message and broadcasts it to the room straight away; ChatWriteBehind writes it
+         * shortly after and announces durability on the room's {@code /persisted} topic.
+         */
+        public ChatMessageResponseDTO sendMessage(UUID bookingId, UUID senderId, String message) {
+                ChatRoomDescriptor room = requireParticipant(chatRoomDirectory.get(bookingId), senderId);
+
+                // Numbered, queued and broadcast under the room's monitor, so frames leave in seq order
+                synchronized (room) {
+                        long seq = chatRoomDirectory.nextSeq(room);
+                        PendingChatMessage pending = new PendingChatMessage(
+                                        room, UUID.randomUUID(), senderId, message, LocalDateTime.now(), seq);
+                        if (!chatWriteBehind.offer(pending)) {
+                                // In relay mode the seq stays allocated on the room row and is skipped
+                                room.resetSeq(seq - 1);
+                                throw new RuntimeException("Chat is busy, please try again");
+                        }
+
+                        ChatMessageResponseDTO response = pending.toResponse();
+                        messagingTemplate.convertAndSend("/topic/chat/" + bookingId, response);
+                        return response;
                 }
-
-                ChatRoom chatRoom = chatRoomRepo.findByBooking_Id(bookingId)
-                                .orElseGet(() -> {
-                                        ChatRoom newRoom = new ChatRoom();
-                                        newRoom.setBooking(booking);
-                                        return chatRoomRepo.save(newRoom);
-                                });
-
-                ChatMessage chatMessage = new ChatMessage();
-                chatMessage.setChatRoom(chatRoom);
-                chatMessage.setSender(sender);
-                chatMessage.setMessage(message);
-                chatMessage.setSentAt(java.time.LocalDateTime.now());
-
-                chatMessageRepo.save(chatMessage);
-
-                return new ChatMessageResponseDTO(
-                                chatMessage.getId(),
-                                sender.getId(),
-                                message,
-                                chatMessage.getSentAt());
         }
 
         public List<ChatMessageResponseDTO> getChatHistory(UUID bookingId, User user) {
-                Booking booking = bookingRepo.findById(bookingId)
-                                .orElseThrow(() -> new RuntimeException("Booking not found"));
+                ChatRoomDescriptor room = requireParticipant(chatRoomDirectory.find(bookingId), user.getId());
+                // The room is created by the first message
+                if (room.getRoomId() == null) {
+                        return List.of();
+                }
+                return chatMessageRepo.findHistory(room.getRoomId());
+        }
 
-                UUID passengerId = booking.getPassenger().getId();
-                UUID driverId = booking.getRide().getDriver().getId();
+        /**
+         * One page of history around a sequence number. With neither bound it returns the newest
+         * page; {@code beforeSeq} scrolls back, {@code afterSeq} catches up. Pages are oldest first.
+         */
+        public ChatHistoryPageResponse getChatHistoryPage(UUID bookingId, User user, Long beforeSeq, Long afterSeq,
+                        int limit) {
+                UUID roomId = requireParticipant(chatRoomDirectory.find(bookingId), user.getId()).getRoomId();
+                if (roomId == null) {
+                        return new ChatHistoryPageResponse(List.of(), false);
+                }
 
-                if (!user.getId().equals(passengerId) && !user.getId().equals(driverId)) {
-                        throw new RuntimeException("Unauthorized chat access");
+                int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+                PageRequest page = PageRequest.of(0, pageSize + 1);
+
+                List<ChatMessageResponseDTO> messages;
+                boolean newestFirst = afterSeq == null;
+                if (afterSeq != null) {
+                        messages = chatMessageRepo.findAfter(roomId, afterSeq, page);
+                } else if (beforeSeq != null) {
+                        messages = chatMessageRepo.findBefore(roomId, beforeSeq, page);
+                } else {
+                        messages = chatMessageRepo.findLatest(roomId, page);
                 }
 
-                // ✅ FIXED: If chat room doesn't exist yet, return empty list instead of error
-                ChatRoom chatRoom = chatRoomRepo.findByBooking_Id(bookingId).orElse(null);
+                boolean hasMore = messages.size() > pageSize;
+                messages = new ArrayList<>(messages.subList(0, Math.min(messages.size(), pageSize)));
+                if (newestFirst) {
+                        Collections.reverse(messages);
+                }
+                return new ChatHistoryPageResponse(messages, hasMore);
+        }
 
-                if (chatRoom == null) {
-                        System.out.println("💬 No chat room found for booking: " + bookingId
-                                        + ", returning empty history");
-                        return List.of(); // Return empty list, room will be created on first message
+        /**
+         * Messages in the caller's rooms containing every word of the query, newest first.
+         */
+        public List<ChatSearchHit> searchMessages(User user, String query, int limit) {
+                Set<UUID> roomIds = Set.copyOf(chatRoomRepo.findIdsByParticipant(user.getId()));
+                int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+                List<UUID> messageIds = chatSearchIndex.search(query, roomIds, pageSize);
+                if (messageIds.isEmpty()) {
+                        return List.of();
                 }
+                return chatMessageRepo.findSearchHits(messageIds);
+        }
 
-                return chatMessageRepo.findByChatRoom_IdOrderBySentAtAsc(chatRoom.getId())
-                                .stream()
-                                .map(m -> new ChatMessageResponseDTO(
-                                                m.getId(),
-                                                m.getSender().getId(),
-                                                m.getMessage(),
-                                                m.getSentAt()))
-                                .toList();
+        private ChatRoomDescriptor requireParticipant(ChatRoomDescriptor room, UUID userId) {
+                if (!room.isParticipant(userId)) {
+                        throw new RuntimeException("Unauthorized chat access");
+                }
+                return room;
         }
 }
@@ -0,0 +1,235 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatReadReceiptResponse;
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatReadStateResponse;
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatTypingResponse;
+import com.CheckPoint.CheckPoint.Backend.Model.ChatRoom;
+import com.CheckPoint.CheckPoint.Backend.Repository.ChatRoomRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Typing indicators and read receipts. Neither goes through ChatService: typing state is only
+ * relayed, throttled per user and room, and read receipts are kept as per-room high-water marks
+ * that are written out periodically as one guarded column update each. A mark stays in memory
+ * after it is written, until it has been idle for a while; one that is not in memory starts from
+ * the stored column, so a stale receipt never reads as an advance.
+ *
+ * <p>With the broker relay enabled, another node may hold a newer mark for the same participant,
+ * so marks are not kept in memory: each receipt is a guarded column update straight away, and only
+ * one that moved the column is relayed.
+ */
+@Service
+public class ChatSignalService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatSignalService.class);
+
+    private static final long READ_MARK_IDLE_MILLIS = 10 * 60_000;
+
+    private final ChatRoomDirectory chatRoomDirectory;
+    private final ChatRoomRepository chatRoomRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long typingThrottleMillis;
+    private final boolean clusterWide;
+
+    private final Map<TypingKey, TypingState> typing = new ConcurrentHashMap<>();
+    private final Map<ReadKey, ReadMark> readMarks = new ConcurrentHashMap<>();
+    private final Map<ReadKey, Long> pendingReadMarks = new ConcurrentHashMap<>();
+
+    private final Counter typingRelayed;
+    private final Counter typingThrottled;
+
+    public ChatSignalService(ChatRoomDirectory chatRoomDirectory,
+            ChatRoomRepository chatRoomRepository,
+            SimpMessagingTemplate messagingTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${chat.typing.throttle-millis:2000}") long typingThrottleMillis,
+            @Value("${websocket.broker.relay.enabled:false}") boolean clusterWide) {
+        this.chatRoomDirectory = chatRoomDirectory;
+        this.chatRoomRepository = chatRoomRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.typingThrottleMillis = typingThrottleMillis;
+        this.clusterWide = clusterWide;
+
+        this.typingRelayed = meterRegistry.counter("chat.typing.signals", "result", "relayed");
+        this.typingThrottled = meterRegistry.counter("chat.typing.signals", "result", "throttled");
+    }
+
+    /**
+     * Relays a change of typing state at once; repeats of the same state within the throttle
+     * window are dropped, so a keystroke stream costs at most one frame per window.
+     */
+    public void typing(UUID bookingId, UUID userId, boolean isTyping) {
+        ChatRoomDescriptor room = requireParticipant(bookingId, userId);
+        long now = System.currentTimeMillis();
+
+        TypingKey key = new TypingKey(room.getBookingId(), userId);
+        TypingState previous = typing.get(key);
+        if (previous != null && previous.typing() == isTyping && now - previous.sentAt() < typingThrottleMillis) {
+            typingThrottled.increment();
+            return;
+        }
+        typing.put(key, new TypingState(isTyping, now));
+
+        typingRelayed.increment();
+        messagingTemplate.convertAndSend("/topic/chat/" + bookingId + "/typing",
+                new ChatTypingResponse(bookingId, userId, isTyping));
+    }
+
+    /**
+     * Advances the caller's read mark for the room. Only a mark that moves forward is relayed to
+     * the room and queued for the next flush.
+     */
+    public void markRead(UUID bookingId, UUID userId, long seq) {
+        ChatRoomDescriptor room = requireParticipant(bookingId, userId);
+        // A client cannot claim to have read past what the room has handed out
+        long readSeq = Math.min(seq, chatRoomDirectory.lastSeq(room, seq));
+        if (readSeq <= 0) {
+            return;
+        }
+
+        ReadKey key = new ReadKey(room.getRoomId(), room.isDriver(userId));
+        if (clusterWide) {
+            if (advanceStored(key, readSeq)) {
+                messagingTemplate.convertAndSend("/topic/chat/" + bookingId + "/read",
+                        new ChatReadReceiptResponse(bookingId, userId, readSeq));
+            }
+            return;
+        }
+        if (!readMarks.containsKey(key)) {
+            readMarks.putIfAbsent(key, new ReadMark(storedReadSeq(key), System.currentTimeMillis()));
+        }
+
+        long now = System.currentTimeMillis();
+        long[] advanced = new long[1];
+        readMarks.compute(key, (k, current) -> {
+            if (current != null && current.seq() >= readSeq) {
+                return new ReadMark(current.seq(), now);
+            }
+            advanced[0] = readSeq;
+            return new ReadMark(readSeq, now);
+        });
+        if (advanced[0] == 0) {
+            return;
+        }
+
+        pendingReadMarks.merge(key, readSeq, Math::max);
+        messagingTemplate.convertAndSend("/topic/chat/" + bookingId + "/read",
+                new ChatReadReceiptResponse(bookingId, userId, readSeq));
+    }
+
+    // Stored marks, advanced by any that have not been flushed yet
+    public ChatReadStateResponse getReadState(UUID bookingId, UUID userId) {
+        ChatRoomDescriptor room = requireParticipant(bookingId, userId);
+        if (room.getRoomId() == null) {
+            return new ChatReadStateResponse(bookingId, 0, 0);
+        }
+        ChatRoom stored = chatRoomRepository.findById(room.getRoomId())
+                .orElseThrow(() -> new RuntimeException("Chat room not found"));
+
+        long passengerReadSeq = Math.max(stored.getPassengerReadSeq(),
+                heldReadSeq(new ReadKey(room.getRoomId(), false)));
+        long driverReadSeq = Math.max(stored.getDriverReadSeq(),
+                heldReadSeq(new ReadKey(room.getRoomId(), true)));
+        return new ChatReadStateResponse(bookingId, passengerReadSeq, driverReadSeq);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.read-receipts.flush-millis:5000}")
+    public void flushReadMarks() {
+        if (pendingReadMarks.isEmpty()) {
+            return;
+        }
+
+        Map<ReadKey, Long> batch = new HashMap<>();
+        for (ReadKey key : pendingReadMarks.keySet()) {
+            Long seq = pendingReadMarks.remove(key);
+            if (seq != null) {
+                batch.put(key, seq);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(this::advance));
+        } catch (Exception e) {
+            batch.forEach((key, seq) -> pendingReadMarks.merge(key, seq, Math::max));
+            logger.warn("Failed to flush {} read receipts, will retry", batch.size(), e);
+        }
+    }
+
+    // Drops typing state and written read marks nobody has touched, so both maps hold only active rooms
+    @Scheduled(fixedDelayString = "${chat.typing.sweep-millis:60000}")
+    public void sweepTypingState() {
+        long now = System.currentTimeMillis();
+        long cutoff = now - Math.max(typingThrottleMillis, 30_000);
+        typing.values().removeIf(state -> state.sentAt() < cutoff);
+
+        long readCutoff = now - READ_MARK_IDLE_MILLIS;
+        readMarks.entrySet().removeIf(entry -> entry.getValue().touchedAt() < readCutoff
+                && !pendingReadMarks.containsKey(entry.getKey()));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushReadMarks();
+    }
+
+    private boolean advanceStored(ReadKey key, long seq) {
+        Integer updated = transactionTemplate.execute(status -> advance(key, seq));
+        return updated != null && updated > 0;
+    }
+
+    private int advance(ReadKey key, long seq) {
+        return key.driver()
+                ? chatRoomRepository.advanceDriverReadSeq(key.roomId(), seq)
+                : chatRoomRepository.advancePassengerReadSeq(key.roomId(), seq);
+    }
+
+    private long heldReadSeq(ReadKey key) {
+        ReadMark mark = readMarks.get(key);
+        return mark != null ? mark.seq() : 0L;
+    }
+
+    private long storedReadSeq(ReadKey key) {
+        return chatRoomRepository.findById(key.roomId())
+                .map(room -> key.driver() ? room.getDriverReadSeq() : room.getPassengerReadSeq())
+                .orElse(0L);
+    }
+
+    // Signals never create the room; before the first message there is nothing to mark read
+    private ChatRoomDescriptor requireParticipant(UUID bookingId, UUID userId) {
+        ChatRoomDescriptor room = chatRoomDirectory.find(bookingId);
+        if (!room.isParticipant(userId)) {
+            throw new RuntimeException("Unauthorized chat access");
+        }
+        return room;
+    }
+
+    private record TypingKey(UUID bookingId, UUID userId) {
+    }
+
+    // Each participant owns one mark, so the role identifies the column
+    private record ReadKey(UUID roomId, boolean driver) {
+    }
+
+    private record TypingState(boolean typing, long sentAt) {
+    }
+
+    private record ReadMark(long seq, long touchedAt) {
+    }
+}
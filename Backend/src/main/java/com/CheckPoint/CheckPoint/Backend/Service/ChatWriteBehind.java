@@ -0,0 +1,385 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatPersistedResponse;
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatResequencedResponse;
+import com.CheckPoint.CheckPoint.Backend.Model.ChatDeadLetter;
+import com.CheckPoint.CheckPoint.Backend.Model.ChatMessage;
+import com.CheckPoint.CheckPoint.Backend.Repository.ChatDeadLetterRepository;
+import com.CheckPoint.CheckPoint.Backend.Repository.ChatMessageRepository;
+import com.CheckPoint.CheckPoint.Backend.Repository.ChatRoomRepository;
+import com.CheckPoint.CheckPoint.Backend.Repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes chat messages behind their broadcast. Messages are drained in arrival order on a single
+ * worker and saved in batches; each room is then told how far its messages are durable on
+ * {@code /topic/chat/{bookingId}/persisted}. A room whose write fails is parked together with
+ * everything queued after it and retried with backoff, so no room's messages land out of order.
+ * Messages that still cannot be written after the last attempt, or at shutdown, go to
+ * {@code chat_dead_letters} instead; a room stays parked until they are somewhere durable.
+ */
+@Service
+public class ChatWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatWriteBehind.class);
+
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatDeadLetterRepository chatDeadLetterRepository;
+    private final ChatRoomRepository chatRoomRepository;
+    private final UserRepository userRepository;
+    private final ChatRoomDirectory chatRoomDirectory;
+    private final ChatSearchIndex chatSearchIndex;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor writeExecutor;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    private final BlockingQueue<PendingChatMessage> queue;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Object writeLock = new Object();
+
+    // Guarded by writeLock
+    private final Map<UUID, ParkedRoom> parked = new LinkedHashMap<>();
+    private final AtomicInteger parkedMessages = new AtomicInteger();
+
+    private final Counter persistedCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+
+    public ChatWriteBehind(ChatMessageRepository chatMessageRepository,
+            ChatDeadLetterRepository chatDeadLetterRepository,
+            ChatRoomRepository chatRoomRepository,
+            UserRepository userRepository,
+            ChatRoomDirectory chatRoomDirectory,
+            ChatSearchIndex chatSearchIndex,
+            SimpMessagingTemplate messagingTemplate,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("chatWriteExecutor") Executor writeExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${chat.write-behind.capacity:10000}") int capacity,
+            @Value("${chat.write-behind.batch-size:100}") int batchSize,
+            @Value("${chat.write-behind.max-attempts:10}") int maxAttempts) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.chatDeadLetterRepository = chatDeadLetterRepository;
+        this.chatRoomRepository = chatRoomRepository;
+        this.userRepository = userRepository;
+        this.chatRoomDirectory = chatRoomDirectory;
+        this.chatSearchIndex = chatSearchIndex;
+        this.messagingTemplate = messagingTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.writeExecutor = writeExecutor;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+
+        this.persistedCounter = meterRegistry.counter("chat.write.persisted");
+        this.retriedCounter = meterRegistry.counter("chat.write.retried");
+        this.failedCounter = meterRegistry.counter("chat.write.failed");
+        this.batchTimer = meterRegistry.timer("chat.write.batch");
+        Gauge.builder("chat.write.queued", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("chat.write.parked", parkedMessages, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Queues a message for writing; false when the queue is full. Callers hold the room's monitor,
+     * so each room's messages enter the queue in seq order.
+     */
+    boolean offer(PendingChatMessage message) {
+        if (!queue.offer(message)) {
+            return false;
+        }
+        requestFlush();
+        return true;
+    }
+
+    // Retries parked rooms once their backoff has passed, and picks up anything a rejected flush left
+    @Scheduled(fixedDelayString = "${chat.write-behind.poll-millis:1000}")
+    public void poll() {
+        if (!queue.isEmpty() || parkedMessages.get() > 0) {
+            requestFlush();
+        }
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                writeExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Messages stay queued; the next poll will try again
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        flushRequested.set(false);
+        synchronized (writeLock) {
+            try {
+                retryParkedRooms(false);
+                List<PendingChatMessage> batch = new ArrayList<>(batchSize);
+                while (queue.drainTo(batch, batchSize) > 0) {
+                    writeBatch(batch);
+                    batch.clear();
+                }
+            } catch (Exception e) {
+                logger.error("Chat write-behind failed", e);
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingChatMessage> batch) {
+        // Messages for a parked room wait behind the ones that failed
+        Map<UUID, List<PendingChatMessage>> byRoom = new LinkedHashMap<>();
+        for (PendingChatMessage message : batch) {
+            UUID roomId = message.getRoom().getRoomId();
+            ParkedRoom parkedRoom = parked.get(roomId);
+            if (parkedRoom != null) {
+                parkedRoom.messages.add(message);
+                parkedMessages.incrementAndGet();
+            } else {
+                byRoom.computeIfAbsent(roomId, id -> new ArrayList<>()).add(message);
+            }
+        }
+        if (byRoom.isEmpty()) {
+            return;
+        }
+
+        List<PendingChatMessage> writable = new ArrayList<>(batch.size());
+        byRoom.values().forEach(writable::addAll);
+        try {
+            persist(writable);
+            byRoom.values().forEach(this::acknowledge);
+        } catch (RuntimeException e) {
+            // Split by room so one failing room does not hold back the others
+            for (List<PendingChatMessage> roomMessages : byRoom.values()) {
+                try {
+                    persist(roomMessages);
+                    acknowledge(roomMessages);
+                } catch (RuntimeException roomFailure) {
+                    park(roomMessages, roomFailure);
+                }
+            }
+        }
+    }
+
+    private void retryParkedRooms(boolean ignoreBackoff) {
+        long now = System.currentTimeMillis();
+        Iterator<ParkedRoom> rooms = parked.values().iterator();
+        while (rooms.hasNext()) {
+            ParkedRoom parkedRoom = rooms.next();
+            if (!ignoreBackoff && parkedRoom.nextAttemptAt > now) {
+                continue;
+            }
+
+            List<PendingChatMessage> messages = new ArrayList<>(parkedRoom.messages);
+            try {
+                persist(messages);
+                rooms.remove();
+                parkedMessages.addAndGet(-messages.size());
+                acknowledge(messages);
+            } catch (RuntimeException e) {
+                parkedRoom.attempts++;
+                if (parkedRoom.attempts >= maxAttempts && deadLetter(parkedRoom, messages, e)) {
+                    rooms.remove();
+                    parkedMessages.addAndGet(-messages.size());
+                } else {
+                    retriedCounter.increment(messages.size());
+                    parkedRoom.scheduleRetry(now);
+                    if (e instanceof DataIntegrityViolationException) {
+                        renumber(parkedRoom);
+                    }
+                }
+            }
+        }
+    }
+
+    private void park(List<PendingChatMessage> messages, RuntimeException cause) {
+        ChatRoomDescriptor room = messages.get(0).getRoom();
+        logger.warn("Chat write for booking {} failed, parking {} messages: {}",
+                room.getBookingId(), messages.size(), cause.getMessage());
+
+        ParkedRoom parkedRoom = new ParkedRoom(room);
+        parkedRoom.messages.addAll(messages);
+        parkedRoom.scheduleRetry(System.currentTimeMillis());
+        parked.put(room.getRoomId(), parkedRoom);
+        parkedMessages.addAndGet(messages.size());
+        retriedCounter.increment(messages.size());
+
+        if (cause instanceof DataIntegrityViolationException) {
+            renumber(parkedRoom);
+        }
+    }
+
+    /**
+     * Keeps messages that could not be written, so nothing the room was shown is lost. False when
+     * that write fails too; the room then stays parked and is retried.
+     */
+    private boolean deadLetter(ParkedRoom parkedRoom, List<PendingChatMessage> messages, RuntimeException cause) {
+        String lastError = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<ChatDeadLetter> letters = new ArrayList<>(messages.size());
+                for (PendingChatMessage message : messages) {
+                    ChatDeadLetter letter = new ChatDeadLetter();
+                    letter.setId(message.getId());
+                    letter.setChatRoomId(message.getRoom().getRoomId());
+                    letter.setBookingId(message.getRoom().getBookingId());
+                    letter.setSenderId(message.getSenderId());
+                    letter.setMessage(message.getMessage());
+                    letter.setSentAt(message.getSentAt());
+                    letter.setSeq(message.getSeq());
+                    letter.setLastError(lastError.length() > 500 ? lastError.substring(0, 500) : lastError);
+                    letters.add(letter);
+                }
+                chatDeadLetterRepository.saveAll(letters);
+            });
+        } catch (RuntimeException e) {
+            logger.error("Could not dead-letter {} chat messages for booking {}; keeping them parked",
+                    messages.size(), parkedRoom.room.getBookingId(), e);
+            return false;
+        }
+
+        failedCounter.increment(messages.size());
+        logger.error("Dead-lettered {} chat messages for booking {} after {} attempts",
+                messages.size(), parkedRoom.room.getBookingId(), parkedRoom.attempts, cause);
+        return true;
+    }
+
+    /**
+     * Another node (or the startup backfill) wrote into the seqs this node handed out. Renumbers
+     * the room's unwritten messages past the stored maximum, in their original order, and tells
+     * the room on {@code /topic/chat/{bookingId}/resequenced}. The messages themselves are not sent
+     * again: clients drop frames whose messageId they have already seen.
+     */
+    private void renumber(ParkedRoom parkedRoom) {
+        ChatRoomDescriptor room = parkedRoom.room;
+        List<PendingChatMessage> renumbered = new ArrayList<>();
+        synchronized (room) {
+            chatRoomDirectory.resync(room);
+            for (PendingChatMessage message : parkedRoom.messages) {
+                message.setSeq(chatRoomDirectory.nextSeq(room));
+                renumbered.add(message);
+            }
+            // Later messages for this room may still be in the queue; they come after the parked ones
+            for (PendingChatMessage message : queue) {
+                if (message.getRoom() == room) {
+                    message.setSeq(chatRoomDirectory.nextSeq(room));
+                    renumbered.add(message);
+                }
+            }
+            List<ChatResequencedResponse.Entry> entries = new ArrayList<>(renumbered.size());
+            for (PendingChatMessage message : renumbered) {
+                entries.add(new ChatResequencedResponse.Entry(message.getId(), message.getSeq()));
+            }
+            messagingTemplate.convertAndSend("/topic/chat/" + room.getBookingId() + "/resequenced",
+                    new ChatResequencedResponse(room.getBookingId(), entries));
+        }
+    }
+
+    // Room and sender are references, so each message costs only its insert
+    private void persist(List<PendingChatMessage> messages) {
+        batchTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            List<ChatMessage> entities = new ArrayList<>(messages.size());
+            for (PendingChatMessage message : messages) {
+                ChatMessage entity = new ChatMessage();
+                entity.setId(message.getId());
+                entity.setChatRoom(chatRoomRepository.getReferenceById(message.getRoom().getRoomId()));
+                entity.setSender(userRepository.getReferenceById(message.getSenderId()));
+                entity.setMessage(message.getMessage());
+                entity.setSentAt(message.getSentAt());
+                entity.setSeq(message.getSeq());
+                entities.add(entity);
+            }
+            chatMessageRepository.saveAll(entities);
+        }));
+        persistedCounter.increment(messages.size());
+    }
+
+    // Runs once a room's messages are durable: index them for search, then tell the room
+    private void acknowledge(List<PendingChatMessage> roomMessages) {
+        for (PendingChatMessage message : roomMessages) {
+            chatSearchIndex.add(new ChatSearchIndex.IndexedMessage(
+                    message.getId(), message.getRoom().getRoomId(), message.getMessage()));
+        }
+
+        PendingChatMessage last = roomMessages.get(roomMessages.size() - 1);
+        UUID bookingId = last.getRoom().getBookingId();
+        messagingTemplate.convertAndSend("/topic/chat/" + bookingId + "/persisted",
+                new ChatPersistedResponse(bookingId, last.getSeq()));
+    }
+
+    // Broadcast messages must not be lost on a clean shutdown; parked rooms get one last attempt
+    @PreDestroy
+    public void flush() {
+        synchronized (writeLock) {
+            retryParkedRooms(true);
+            List<PendingChatMessage> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                writeBatch(batch);
+                batch.clear();
+            }
+
+            // Nothing will retry what is still parked once this node is gone
+            Iterator<ParkedRoom> rooms = parked.values().iterator();
+            while (rooms.hasNext()) {
+                ParkedRoom parkedRoom = rooms.next();
+                List<PendingChatMessage> messages = new ArrayList<>(parkedRoom.messages);
+                if (deadLetter(parkedRoom, messages, new IllegalStateException("Unwritten at shutdown"))) {
+                    rooms.remove();
+                    parkedMessages.addAndGet(-messages.size());
+                }
+            }
+            if (parkedMessages.get() > 0) {
+                logger.error("Shutting down with {} unwritten chat messages", parkedMessages.get());
+            }
+        }
+    }
+
+    private static final class ParkedRoom {
+
+        private final ChatRoomDescriptor room;
+        private final Deque<PendingChatMessage> messages = new ArrayDeque<>();
+        private int attempts;
+        private long nextAttemptAt;
+
+        private ParkedRoom(ChatRoomDescriptor room) {
+            this.room = room;
+        }
+
+        private void scheduleRetry(long now) {
+            nextAttemptAt = now + Math.min(100L << Math.min(attempts, 16), MAX_BACKOFF_MILLIS);
+        }
+    }
+}
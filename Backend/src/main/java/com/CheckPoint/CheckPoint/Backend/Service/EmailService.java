@@ -1,26 +1,34 @@
 package com.CheckPoint.CheckPoint.Backend.Service;
 
+import com.CheckPoint.CheckPoint.Backend.Event.MailQueuedEvent;
+import com.CheckPoint.CheckPoint.Backend.Model.MailOutbox;
+import com.CheckPoint.CheckPoint.Backend.Repository.MailOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class EmailService {
     @Autowired
-    private JavaMailSender mailSender;
+    private MailOutboxRepository mailOutboxRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
     public void sendPasswordResetEmail(String to, String token) {
         String resetUrl = "http://localhost:8080/reset-password?token=" + token;
         String subject = "Password Reset Request";
         String text = "To reset your password, click the link below:\n" + resetUrl +
                 "\n\nThis link will expire in 24 hours.";
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(text);
+        queue(to, subject, text);
+    }
 
-        mailSender.send(message);
+    // Sent by MailDispatcher after commit, so SMTP latency never reaches the request thread
+    private void queue(String to, String subject, String text) {
+        MailOutbox mail = mailOutboxRepository.save(new MailOutbox(to, subject, text));
+        eventPublisher.publishEvent(new MailQueuedEvent(mail.getId()));
     }
 }
@@ -0,0 +1,72 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Model.User;
+import com.CheckPoint.CheckPoint.Backend.Repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps last-login timestamps in memory and writes them out in one transaction per flush,
+ * so logins never wait on a write and repeat logins between flushes collapse into one update.
+ */
+@Component
+public class LastLoginRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<UUID, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public LastLoginRecorder(UserRepository userRepository, TransactionTemplate transactionTemplate) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // The user may be a shared instance, so only the pending map is written; callers use the returned time
+    public LocalDateTime record(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        pending.merge(user.getId(), now, (previous, latest) -> latest.isAfter(previous) ? latest : previous);
+        return now;
+    }
+
+    @Scheduled(fixedDelayString = "${auth.last-login.flush-millis:10000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, LocalDateTime> batch = new HashMap<>();
+        for (UUID userId : pending.keySet()) {
+            LocalDateTime lastLogin = pending.remove(userId);
+            if (lastLogin != null) {
+                batch.put(userId, lastLogin);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    batch.forEach(userRepository::updateLastLoginById));
+        } catch (Exception e) {
+            // Put the batch back unless a newer login has been recorded meanwhile
+            batch.forEach((userId, lastLogin) -> pending.merge(userId, lastLogin,
+                    (newer, failed) -> newer.isAfter(failed) ? newer : failed));
+            logger.warn("Failed to flush {} last-login updates, will retry", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
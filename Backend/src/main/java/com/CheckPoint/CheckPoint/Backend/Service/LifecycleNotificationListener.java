@@ -0,0 +1,97 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Event.BookingStatusChangedEvent;
+import com.CheckPoint.CheckPoint.Backend.Event.RideStatusChangedEvent;
+import com.CheckPoint.CheckPoint.Backend.Model.*;
+import com.CheckPoint.CheckPoint.Backend.Repository.BookingRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LifecycleNotificationListener {
+
+    private final NotificationService notificationService;
+    private final BookingRepository bookingRepository;
+
+    public LifecycleNotificationListener(NotificationService notificationService,
+            BookingRepository bookingRepository) {
+        this.notificationService = notificationService;
+        this.bookingRepository = bookingRepository;
+    }
+
+    @EventListener
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        Booking booking = event.getBooking();
+        Ride ride = booking.getRide();
+        User passenger = booking.getPassenger();
+        User driver = ride.getDriver();
+
+        if (event.isCreation()) {
+            if (event.getNewStatus() == BookingStatus.ACCEPTED) {
+                notificationService.createAndSendNotification(
+                        passenger,
+                        NotificationType.BOOKING_CONFIRMED,
+                        "Booking Confirmed!",
+                        "Your seat with " + driver.getFirstName() + " is confirmed",
+                        ride.getId(),
+                        booking.getId());
+
+                notificationService.createAndSendNotification(
+                        driver,
+                        NotificationType.BOOKING_ACCEPTED,
+                        "New Passenger",
+                        passenger.getFirstName() + " has booked your ride",
+                        ride.getId(),
+                        booking.getId());
+            } else {
+                notificationService.createAndSendNotification(
+                        driver,
+                        NotificationType.BOOKING_REQUEST,
+                        "New Booking Request",
+                        passenger.getFirstName() + " wants to ride with you",
+                        ride.getId(),
+                        booking.getId());
+            }
+            return;
+        }
+
+        if (event.getNewStatus() == BookingStatus.ACCEPTED) {
+            notificationService.createAndSendNotification(
+                    passenger,
+                    NotificationType.BOOKING_CONFIRMED,
+                    "Booking Confirmed!",
+                    "Your ride request has been accepted by " + driver.getFirstName(),
+                    ride.getId(),
+                    booking.getId());
+        } else if (event.getNewStatus() == BookingStatus.REJECTED) {
+            boolean expired = event.getActor() == null;
+            notificationService.createAndSendNotification(
+                    passenger,
+                    NotificationType.BOOKING_REJECTED,
+                    expired ? "Booking Request Expired" : "Booking Rejected",
+                    expired ? "The driver did not respond to your ride request in time"
+                            : "Your ride request was declined",
+                    ride.getId(),
+                    booking.getId());
+        }
+    }
+
+    @EventListener
+    public void onRideStatusChanged(RideStatusChangedEvent event) {
+        Ride ride = event.getRide();
+
+        if (event.getNewStatus() == RideStatus.CANCELLED) {
+            notificationService.notifyPassengers(
+                    bookingRepository.findWithPassengerByRideAndStatus(ride, BookingStatus.ACCEPTED),
+                    NotificationType.RIDE_CANCELLED,
+                    "Ride Cancelled",
+                    ride.getDriver().getFirstName() + " has cancelled the ride");
+        } else if (event.getNewStatus() == RideStatus.COMPLETED) {
+            notificationService.notifyPassengers(
+                    bookingRepository.findWithPassengerByRideAndStatus(ride, BookingStatus.ACCEPTED),
+                    NotificationType.RIDE_COMPLETED,
+                    "Ride Completed!",
+                    "Your ride has been completed. Please proceed to payment.");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Event.BookingStatusChangedEvent;
+import com.CheckPoint.CheckPoint.Backend.Event.RideStatusChangedEvent;
+import com.CheckPoint.CheckPoint.Backend.Model.Booking;
+import com.CheckPoint.CheckPoint.Backend.Model.BookingStatus;
+import com.CheckPoint.CheckPoint.Backend.Model.Ride;
+import com.CheckPoint.CheckPoint.Backend.Model.RideStatus;
+import com.CheckPoint.CheckPoint.Backend.Model.User;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single owner of ride and booking status changes. Guards only look at the entities that are
+ * passed in, and every applied change is published so listeners can react to it.
+ */
+@Component
+public class LifecycleStateMachine {
+
+    private static final Map<RideStatus, Set<RideStatus>> RIDE_TRANSITIONS = new EnumMap<>(RideStatus.class);
+    private static final Map<BookingStatus, Set<BookingStatus>> BOOKING_TRANSITIONS = new EnumMap<>(BookingStatus.class);
+
+    static {
+        RIDE_TRANSITIONS.put(RideStatus.AVAILABLE,
+                EnumSet.of(RideStatus.CONFIRMED, RideStatus.IN_PROGRESS, RideStatus.CANCELLED));
+        RIDE_TRANSITIONS.put(RideStatus.CONFIRMED, EnumSet.of(RideStatus.IN_PROGRESS, RideStatus.CANCELLED));
+        RIDE_TRANSITIONS.put(RideStatus.IN_PROGRESS, EnumSet.of(RideStatus.COMPLETED));
+        RIDE_TRANSITIONS.put(RideStatus.COMPLETED, EnumSet.noneOf(RideStatus.class));
+        RIDE_TRANSITIONS.put(RideStatus.CANCELLED, EnumSet.noneOf(RideStatus.class));
+
+        BOOKING_TRANSITIONS.put(BookingStatus.PENDING, EnumSet.of(BookingStatus.REQUESTED,
+                BookingStatus.ACCEPTED, BookingStatus.REJECTED, BookingStatus.CANCELLED));
+        BOOKING_TRANSITIONS.put(BookingStatus.REQUESTED,
+                EnumSet.of(BookingStatus.ACCEPTED, BookingStatus.REJECTED, BookingStatus.CANCELLED));
+        BOOKING_TRANSITIONS.put(BookingStatus.ACCEPTED, EnumSet.of(BookingStatus.CANCELLED));
+        BOOKING_TRANSITIONS.put(BookingStatus.REJECTED, EnumSet.noneOf(BookingStatus.class));
+        BOOKING_TRANSITIONS.put(BookingStatus.CANCELLED, EnumSet.noneOf(BookingStatus.class));
+    }
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public LifecycleStateMachine(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    public boolean canTransition(RideStatus from, RideStatus to) {
+        return RIDE_TRANSITIONS.get(from).contains(to);
+    }
+
+    public boolean canTransition(BookingStatus from, BookingStatus to) {
+        return BOOKING_TRANSITIONS.get(from).contains(to);
+    }
+
+    public void requireTransition(RideStatus from, RideStatus to) {
+        if (!canTransition(from, to)) {
+            throw new IllegalStateException("Cannot change ride status from " + from + " to " + to);
+        }
+    }
+
+    public void requireTransition(BookingStatus from, BookingStatus to) {
+        if (!canTransition(from, to)) {
+            if (from != BookingStatus.REQUESTED && from != BookingStatus.PENDING) {
+                throw new IllegalStateException(
+                        "This booking has already been " + from.name().toLowerCase() +
+                                ". Current status: " + from);
+            }
+            throw new IllegalStateException("Cannot change booking status from " + from + " to " + to);
+        }
+    }
+
+    public void transition(Ride ride, RideStatus target, User actor) {
+        RideStatus current = ride.getStatus();
+        requireTransition(current, target);
+
+        ride.setStatus(target);
+        eventPublisher.publishEvent(new RideStatusChangedEvent(ride, current, target, actor));
+    }
+
+    public void transition(Booking booking, BookingStatus target, User actor) {
+        BookingStatus current = booking.getStatus();
+        requireTransition(current, target);
+
+        if (target == BookingStatus.ACCEPTED && booking.getRide().getAvailableSeats() <= 0) {
+            throw new IllegalStateException("This ride has no available seats.");
+        }
+
+        booking.setStatus(target);
+        eventPublisher.publishEvent(new BookingStatusChangedEvent(booking, current, target, actor));
+    }
+
+    public void created(Booking booking, User actor) {
+        eventPublisher.publishEvent(new BookingStatusChangedEvent(booking, null, booking.getStatus(), actor));
+    }
+
+    // For changes applied by a conditional UPDATE that already enforced the guard in SQL
+    public void applied(Ride ride, RideStatus from, RideStatus to, User actor) {
+        requireTransition(from, to);
+        eventPublisher.publishEvent(new RideStatusChangedEvent(ride, from, to, actor));
+    }
+
+    public void applied(Booking booking, BookingStatus from, BookingStatus to, User actor) {
+        requireTransition(from, to);
+        eventPublisher.publishEvent(new BookingStatusChangedEvent(booking, from, to, actor));
+    }
+}
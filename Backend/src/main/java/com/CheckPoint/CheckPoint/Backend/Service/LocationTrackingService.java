@@ -22,15 +22,18 @@ public class LocationTrackingService {
     private final RideRepository rideRepository;
     private final BookingRepository bookingRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final PresenceRegistry presenceRegistry;
 
     public LocationTrackingService(RideLocationRepository locationRepository,
             RideRepository rideRepository,
             BookingRepository bookingRepository,
-            SimpMessagingTemplate messagingTemplate) {
+            SimpMessagingTemplate messagingTemplate,
+            PresenceRegistry presenceRegistry) {
         this.locationRepository = locationRepository;
         this.rideRepository = rideRepository;
         this.bookingRepository = bookingRepository;
         this.messagingTemplate = messagingTemplate;
+        this.presenceRegistry = presenceRegistry;
     }
 
     @Transactional
@@ -82,7 +85,11 @@ public class LocationTrackingService {
     private void sendLocationToRideParticipants(Ride ride, LocationResponseDto location, boolean toDriver) {
         String destination = "/queue/location";
 
+        // Positions are only useful live; a participant who is not listening reads the latest over REST
         if (toDriver) {
+            if (!presenceRegistry.isSubscribed(ride.getDriver().getUsername(), destination)) {
+                return;
+            }
             messagingTemplate.convertAndSendToUser(
                     ride.getDriver().getUsername(),
                     destination,
@@ -91,6 +98,9 @@ public class LocationTrackingService {
         } else {
             bookingRepository.findByRideAndStatus(ride, BookingStatus.ACCEPTED)
                     .forEach(booking -> {
+                        if (!presenceRegistry.isSubscribed(booking.getPassenger().getUsername(), destination)) {
+                            return;
+                        }
                         messagingTemplate.convertAndSendToUser(
                                 booking.getPassenger().getUsername(),
                                 destination,
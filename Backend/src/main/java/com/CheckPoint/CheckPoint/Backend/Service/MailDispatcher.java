@@ -0,0 +1,222 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Event.MailQueuedEvent;
+import com.CheckPoint.CheckPoint.Backend.Model.MailOutbox;
+import com.CheckPoint.CheckPoint.Backend.Model.OutboxStatus;
+import com.CheckPoint.CheckPoint.Backend.Repository.MailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains the mail outbox on a single background worker. Each batch goes through one
+ * JavaMailSender.send call, which reuses a single SMTP connection for every message in it.
+ * Batches are claimed like NotificationOutboxRelay's, so each node sends only the mail it claimed.
+ */
+@Service
+public class MailDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private static final long MAX_BACKOFF_SECONDS = 600;
+
+    private final MailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor dispatchExecutor;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long claimSeconds;
+    private final String fromAddress;
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer sendTimer;
+
+    public MailDispatcher(MailOutboxRepository outboxRepository,
+            JavaMailSender mailSender,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("mailDispatchExecutor") Executor dispatchExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${mail.outbox.batch-size:50}") int batchSize,
+            @Value("${mail.outbox.max-attempts:6}") int maxAttempts,
+            @Value("${mail.outbox.claim-seconds:300}") long claimSeconds,
+            @Value("${mail.from:}") String fromAddress) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.dispatchExecutor = dispatchExecutor;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.claimSeconds = claimSeconds;
+        this.fromAddress = fromAddress;
+
+        this.sentCounter = meterRegistry.counter("mail.outbox.sent");
+        this.retriedCounter = meterRegistry.counter("mail.outbox.retried");
+        this.failedCounter = meterRegistry.counter("mail.outbox.failed");
+        this.sendTimer = meterRegistry.timer("mail.send");
+        Gauge.builder("mail.outbox.pending", outboxRepository,
+                repository -> repository.countByStatus(OutboxStatus.PENDING))
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMailQueued(MailQueuedEvent event) {
+        requestDispatch();
+    }
+
+    // Picks up retries and anything left behind by a restart
+    @Scheduled(fixedDelay = 15000)
+    public void pollOutbox() {
+        requestDispatch();
+    }
+
+    private void requestDispatch() {
+        if (dispatchRequested.compareAndSet(false, true)) {
+            try {
+                dispatchExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // The next poll will try again; queued mail is already durable
+                dispatchRequested.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        dispatchRequested.set(false);
+        try {
+            int dispatched;
+            do {
+                dispatched = dispatchBatch();
+            } while (dispatched == batchSize);
+        } catch (Exception e) {
+            logger.error("Mail dispatch failed", e);
+        }
+    }
+
+    private int dispatchBatch() {
+        List<MailOutbox> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            messages[i] = toMessage(batch.get(i));
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        Exception batchFailure = null;
+        Timer.Sample sample = Timer.start();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            batchFailure = e;
+        } catch (MailException e) {
+            batchFailure = e;
+        } finally {
+            sample.stop(sendTimer);
+        }
+
+        List<UUID> sent = new ArrayList<>();
+        List<MailOutbox> retries = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            MailOutbox mail = batch.get(i);
+            Exception failure = failures.get(messages[i]);
+            // Without per-message detail the whole batch has to be treated as failed
+            if (failure == null && batchFailure != null && failures.isEmpty()) {
+                failure = batchFailure;
+            }
+
+            if (failure == null) {
+                sent.add(mail.getId());
+                sentCounter.increment();
+            } else {
+                retries.add(scheduleRetry(mail, failure));
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sent.isEmpty()) {
+                outboxRepository.deleteAllByIdInBatch(sent);
+            }
+            if (!retries.isEmpty()) {
+                outboxRepository.saveAll(retries);
+            }
+        });
+
+        return batch.size();
+    }
+
+    // The lease outlasts a batch's SMTP send, so a slow server does not hand the mail to another node
+    private List<MailOutbox> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<MailOutbox> batch = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+                OutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+        LocalDateTime leaseEnd = now.plusSeconds(claimSeconds);
+        batch.forEach(mail -> mail.setNextAttemptAt(leaseEnd));
+        return batch;
+    }
+
+    private SimpleMailMessage toMessage(MailOutbox mail) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        if (!fromAddress.isBlank()) {
+            message.setFrom(fromAddress);
+        }
+        message.setTo(mail.getRecipient());
+        message.setSubject(mail.getSubject());
+        message.setText(mail.getBody());
+        return message;
+    }
+
+    private MailOutbox scheduleRetry(MailOutbox mail, Exception cause) {
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        mail.setLastError(truncate(cause.getMessage()));
+
+        if (attempts >= maxAttempts) {
+            mail.setStatus(OutboxStatus.FAILED);
+            failedCounter.increment();
+            logger.warn("Giving up on mail to {} after {} attempts", mail.getRecipient(), attempts);
+        } else {
+            long backoff = Math.min(1L << (attempts + 2), MAX_BACKOFF_SECONDS);
+            mail.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+            retriedCounter.increment();
+        }
+        return mail;
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= 500) {
+            return message;
+        }
+        return message.substring(0, 500);
+    }
+}
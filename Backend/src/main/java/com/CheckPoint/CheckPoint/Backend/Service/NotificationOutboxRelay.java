@@ -0,0 +1,218 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.DTO.NotificationResponse;
+import com.CheckPoint.CheckPoint.Backend.Event.NotificationQueuedEvent;
+import com.CheckPoint.CheckPoint.Backend.Model.Notification;
+import com.CheckPoint.CheckPoint.Backend.Model.NotificationOutbox;
+import com.CheckPoint.CheckPoint.Backend.Model.OutboxStatus;
+import com.CheckPoint.CheckPoint.Backend.Repository.NotificationOutboxRepository;
+import com.CheckPoint.CheckPoint.Backend.Repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Relays queued notifications to their recipients' sessions. Every node runs the relay; a batch
+ * is claimed by pushing its entries' next attempt past a lease in the transaction that locked
+ * them, so other nodes skip it. Entries of a node that dies mid-batch come due again when the
+ * lease runs out.
+ */
+@Service
+public class NotificationOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxRelay.class);
+
+    private static final String DESTINATION = "/queue/notifications";
+    private static final long MAX_BACKOFF_SECONDS = 300;
+
+    @Value("${notification.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${notification.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notification.outbox.claim-seconds:60}")
+    private long claimSeconds;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationRepository notificationRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor relayExecutor;
+    private final PresenceRegistry presenceRegistry;
+    private final AtomicBoolean relayRequested = new AtomicBoolean();
+
+    private final Counter deliveredCounter;
+    private final Counter offlineCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+
+    public NotificationOutboxRelay(NotificationOutboxRepository outboxRepository,
+            NotificationRepository notificationRepository,
+            SimpMessagingTemplate messagingTemplate,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("notificationRelayExecutor") Executor relayExecutor,
+            PresenceRegistry presenceRegistry,
+            MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.notificationRepository = notificationRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.relayExecutor = relayExecutor;
+        this.presenceRegistry = presenceRegistry;
+
+        this.deliveredCounter = meterRegistry.counter("notifications.outbox.delivered");
+        this.offlineCounter = meterRegistry.counter("notifications.outbox.offline");
+        this.retriedCounter = meterRegistry.counter("notifications.outbox.retried");
+        this.failedCounter = meterRegistry.counter("notifications.outbox.failed");
+        this.batchTimer = meterRegistry.timer("notifications.outbox.batch");
+        Gauge.builder("notifications.outbox.pending", outboxRepository,
+                repository -> repository.countByStatus(OutboxStatus.PENDING))
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotificationQueued(NotificationQueuedEvent event) {
+        requestRelay();
+    }
+
+    // Picks up retries and anything left behind by a restart
+    @Scheduled(fixedDelay = 5000)
+    public void pollOutbox() {
+        requestRelay();
+    }
+
+    private void requestRelay() {
+        if (relayRequested.compareAndSet(false, true)) {
+            try {
+                relayExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // The next poll will try again; queued notifications are already durable
+                relayRequested.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        relayRequested.set(false);
+        try {
+            int relayed;
+            do {
+                Timer.Sample sample = Timer.start();
+                relayed = relayBatch();
+                sample.stop(batchTimer);
+            } while (relayed == batchSize);
+        } catch (Exception e) {
+            logger.error("Notification outbox relay failed", e);
+        }
+    }
+
+    private int relayBatch() {
+        List<NotificationOutbox> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, Notification> notifications = notificationRepository
+                .findAllById(batch.stream().map(NotificationOutbox::getNotificationId).toList())
+                .stream()
+                .collect(Collectors.toMap(Notification::getId, Function.identity()));
+
+        List<UUID> finished = new ArrayList<>();
+        List<NotificationOutbox> retries = new ArrayList<>();
+
+        for (NotificationOutbox entry : batch) {
+            Notification notification = notifications.get(entry.getNotificationId());
+            if (notification == null) {
+                finished.add(entry.getId());
+                continue;
+            }
+            // Nobody is listening: the stored notification is picked up through the replay endpoint
+            if (!presenceRegistry.isSubscribed(entry.getRecipient(), DESTINATION)) {
+                finished.add(entry.getId());
+                offlineCounter.increment();
+                continue;
+            }
+
+            try {
+                messagingTemplate.convertAndSendToUser(
+                        entry.getRecipient(),
+                        DESTINATION,
+                        new NotificationResponse(notification));
+                finished.add(entry.getId());
+                deliveredCounter.increment();
+            } catch (Exception e) {
+                retries.add(scheduleRetry(entry, e));
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!finished.isEmpty()) {
+                outboxRepository.deleteAllByIdInBatch(finished);
+            }
+            if (!retries.isEmpty()) {
+                outboxRepository.saveAll(retries);
+            }
+        });
+
+        return batch.size();
+    }
+
+    private List<NotificationOutbox> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> batch = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+                OutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+        LocalDateTime leaseEnd = now.plusSeconds(claimSeconds);
+        batch.forEach(entry -> entry.setNextAttemptAt(leaseEnd));
+        return batch;
+    }
+
+    private NotificationOutbox scheduleRetry(NotificationOutbox entry, Exception cause) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setLastError(truncate(cause.getMessage()));
+
+        if (attempts >= maxAttempts) {
+            entry.setStatus(OutboxStatus.FAILED);
+            failedCounter.increment();
+            logger.warn("Giving up on notification {} for {} after {} attempts",
+                    entry.getNotificationId(), entry.getRecipient(), attempts);
+        } else {
+            long backoff = Math.min(1L << attempts, MAX_BACKOFF_SECONDS);
+            entry.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+            retriedCounter.increment();
+        }
+        return entry;
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= 500) {
+            return message;
+        }
+        return message.substring(0, 500);
+    }
+}
@@ -0,0 +1,59 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Component
+public class NotificationRetentionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetentionJob.class);
+
+    @Value("${notification.retention.days:30}")
+    private int retentionDays;
+
+    @Value("${notification.retention.chunk-size:500}")
+    private int chunkSize;
+
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public NotificationRetentionJob(NotificationRepository notificationRepository,
+            TransactionTemplate transactionTemplate) {
+        this.notificationRepository = notificationRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Each chunk commits on its own so the job never holds long locks on the table
+    @Scheduled(cron = "${notification.retention.cron:0 30 3 * * *}")
+    public void purgeOldReadNotifications() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long purged = 0;
+
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                List<UUID> ids = notificationRepository.findReadIdsCreatedBefore(
+                        cutoff, PageRequest.of(0, chunkSize));
+                if (!ids.isEmpty()) {
+                    notificationRepository.deleteAllByIdInBatch(ids);
+                }
+                return ids.size();
+            });
+            purged += deleted;
+        } while (deleted == chunkSize);
+
+        if (purged > 0) {
+            logger.info("Purged {} read notifications older than {} days", purged, retentionDays);
+        }
+    }
+}
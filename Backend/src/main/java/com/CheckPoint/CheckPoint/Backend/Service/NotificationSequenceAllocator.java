@@ -0,0 +1,76 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Model.Notification;
+import com.CheckPoint.CheckPoint.Backend.Repository.NotificationSequenceRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Hands out gap-free, per-user notification sequence numbers. Numbers are drawn just before the
+ * caller's transaction commits, one counter row per recipient in user id order, and those rows
+ * stay locked until the commit, so sequences commit in the order they were issued and no two
+ * transactions can wait on each other's counters.
+ */
+@Component
+public class NotificationSequenceAllocator {
+
+    private final NotificationSequenceRepository sequenceRepository;
+
+    public NotificationSequenceAllocator(NotificationSequenceRepository sequenceRepository) {
+        this.sequenceRepository = sequenceRepository;
+    }
+
+    /**
+     * Gives the notification the next sequence of its user when the current transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void assign(Notification notification) {
+        PendingSequences pending = (PendingSequences) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingSequences();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(notification);
+    }
+
+    private final class PendingSequences implements TransactionSynchronization {
+
+        // Sorted, so every transaction locks the counters it needs in the same order
+        private final Map<UUID, List<Notification>> byUser = new TreeMap<>();
+
+        void add(Notification notification) {
+            List<Notification> notifications = byUser.computeIfAbsent(notification.getUser().getId(),
+                    id -> new ArrayList<>());
+            // An entry assigned twice in one transaction still takes a single number
+            if (notifications.stream().noneMatch(existing -> existing == notification)) {
+                notifications.add(notification);
+            }
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            byUser.forEach((userId, notifications) -> {
+                sequenceRepository.advance(userId, notifications.size());
+                long next = sequenceRepository.findLastSequence(userId) - notifications.size() + 1;
+                for (Notification notification : notifications) {
+                    notification.setSequence(next++);
+                }
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(NotificationSequenceAllocator.this);
+        }
+    }
+}
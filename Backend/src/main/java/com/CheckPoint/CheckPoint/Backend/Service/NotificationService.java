@@ -1,14 +1,26 @@
 package com.CheckPoint.CheckPoint.Backend.Service;
 
+import com.CheckPoint.CheckPoint.Backend.DTO.NotificationPageResponse;
+import com.CheckPoint.CheckPoint.Backend.DTO.NotificationReplayResponse;
 import com.CheckPoint.CheckPoint.Backend.DTO.NotificationResponse;
+import com.CheckPoint.CheckPoint.Backend.Event.NotificationQueuedEvent;
+import com.CheckPoint.CheckPoint.Backend.Model.Booking;
 import com.CheckPoint.CheckPoint.Backend.Model.Notification;
+import com.CheckPoint.CheckPoint.Backend.Model.NotificationOutbox;
 import com.CheckPoint.CheckPoint.Backend.Model.NotificationType;
 import com.CheckPoint.CheckPoint.Backend.Model.User;
+import com.CheckPoint.CheckPoint.Backend.Repository.NotificationOutboxRepository;
 import com.CheckPoint.CheckPoint.Backend.Repository.NotificationRepository;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -16,18 +28,71 @@ import java.util.stream.Collectors;
 @Service
 public class NotificationService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private final NotificationRepository notificationRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationOutboxRepository outboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UnreadNotificationCounter unreadCounter;
+    private final NotificationSequenceAllocator sequenceAllocator;
 
     public NotificationService(NotificationRepository notificationRepository,
-            SimpMessagingTemplate messagingTemplate) {
+            NotificationOutboxRepository outboxRepository,
+            ApplicationEventPublisher eventPublisher,
+            UnreadNotificationCounter unreadCounter,
+            NotificationSequenceAllocator sequenceAllocator) {
         this.notificationRepository = notificationRepository;
-        this.messagingTemplate = messagingTemplate;
+        this.outboxRepository = outboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.unreadCounter = unreadCounter;
+        this.sequenceAllocator = sequenceAllocator;
     }
 
     @Transactional
     public void createAndSendNotification(User user, NotificationType type, String title,
             String message, UUID rideId, UUID bookingId) {
+        Notification notification = buildNotification(user, type, title, message, rideId, bookingId);
+        sequenceAllocator.assign(notification);
+
+        notificationRepository.save(notification);
+
+        // Delivered by NotificationOutboxRelay once the surrounding transaction commits
+        outboxRepository.save(new NotificationOutbox(notification.getId(), user.getEmail()));
+        eventPublisher.publishEvent(new NotificationQueuedEvent(notification.getId()));
+        unreadCounter.adjustAfterCommit(user.getId(), user.getEmail(), 1);
+    }
+
+    @Transactional
+    public void notifyPassengers(List<Booking> bookings, NotificationType type, String title, String message) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+
+        List<Notification> notifications = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            Notification notification = buildNotification(booking.getPassenger(), type, title, message,
+                    booking.getRide().getId(), booking.getId());
+            sequenceAllocator.assign(notification);
+            notifications.add(notification);
+        }
+
+        // saveAll with app-generated ids lets Hibernate send these as JDBC batches
+        notificationRepository.saveAll(notifications);
+
+        List<NotificationOutbox> outboxEntries = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            User recipient = notification.getUser();
+            outboxEntries.add(new NotificationOutbox(notification.getId(), recipient.getEmail()));
+            unreadCounter.adjustAfterCommit(recipient.getId(), recipient.getEmail(), 1);
+        }
+        outboxRepository.saveAll(outboxEntries);
+
+        eventPublisher.publishEvent(new NotificationQueuedEvent(notifications.get(0).getId()));
+    }
+
+    private Notification buildNotification(User user, NotificationType type, String title,
+            String message, UUID rideId, UUID bookingId) {
         Notification notification = new Notification();
         notification.setUser(user);
         notification.setType(type);
@@ -36,24 +101,84 @@ public class NotificationService {
         notification.setRideId(rideId);
         notification.setBookingId(bookingId);
         notification.setIsRead(false);
+        return notification;
+    }
 
-        notificationRepository.save(notification);
+    // The unpaged list clients still call: the newest page only, older ones through /page
+    @Transactional(readOnly = true)
+    public List<NotificationResponse> getUserNotifications(User user) {
+        return getUserNotificationsPage(user, null, DEFAULT_PAGE_SIZE).getItems();
+    }
 
-        NotificationResponse response = new NotificationResponse(notification);
-        messagingTemplate.convertAndSendToUser(
-                user.getEmail(),
-                "/queue/notifications",
-                response);
+    @Transactional(readOnly = true)
+    public NotificationPageResponse getUserNotificationsPage(User user, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Pageable page = PageRequest.of(0, pageSize);
+
+        List<Notification> notifications;
+        if (cursor == null || cursor.isBlank()) {
+            notifications = notificationRepository.findByUserOrderByCreatedAtDescIdDesc(user, page);
+        } else {
+            String[] position = decodeCursor(cursor);
+            notifications = notificationRepository.findPageBefore(
+                    user, LocalDateTime.parse(position[0]), UUID.fromString(position[1]), page);
+        }
+
+        String nextCursor = null;
+        if (notifications.size() == pageSize) {
+            Notification last = notifications.get(notifications.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+
+        List<NotificationResponse> items = notifications.stream()
+                .map(NotificationResponse::new)
+                .collect(Collectors.toList());
+        return new NotificationPageResponse(items, nextCursor);
+    }
+
+    // Delta read for reconnecting clients: everything created or updated after the last sequence they saw
+    @Transactional(readOnly = true)
+    public NotificationReplayResponse getNotificationsSince(User user, long afterSequence, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Notification> notifications = notificationRepository.findByUserAndSequenceGreaterThanOrderBySequenceAsc(
+                user, afterSequence, PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = notifications.size() > pageSize;
+        if (hasMore) {
+            notifications = notifications.subList(0, pageSize);
+        }
+
+        long lastSequence = notifications.isEmpty()
+                ? afterSequence
+                : notifications.get(notifications.size() - 1).getSequence();
+        List<NotificationResponse> items = notifications.stream()
+                .map(NotificationResponse::new)
+                .collect(Collectors.toList());
+        return new NotificationReplayResponse(items, lastSequence, hasMore);
+    }
+
+    private String encodeCursor(LocalDateTime createdAt, UUID id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
 
-    public List<Notification> getUserNotifications(User user) {
-        return notificationRepository.findByUserOrderByCreatedAtDesc(user);
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] position = raw.split("\\|", 2);
+            LocalDateTime.parse(position[0]);
+            UUID.fromString(position[1]);
+            return position;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid notification cursor");
+        }
     }
 
     public List<Notification> getUnreadNotifications(User user) {
         return notificationRepository.findByUserAndIsReadFalseOrderByCreatedAtDesc(user);
     }
 
+    @Transactional
     public Notification markAsRead(UUID notificationId, User user) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
@@ -62,16 +187,21 @@ public class NotificationService {
             throw new RuntimeException("Unauthorized");
         }
 
+        if (!notification.getIsRead()) {
+            unreadCounter.adjustAfterCommit(user.getId(), user.getEmail(), -1);
+        }
+
         notification.setIsRead(true); // Fixed: Changed from setRead() to setIsRead()
         return notificationRepository.save(notification);
     }
 
+    @Transactional
     public void markAllAsRead(User user) {
-        List<Notification> notifications = notificationRepository.findByUserAndIsReadFalse(user);
-        notifications.forEach(n -> n.setIsRead(true)); // Fixed: Changed from setRead() to setIsRead()
-        notificationRepository.saveAll(notifications);
+        notificationRepository.markAllAsReadByUser(user);
+        unreadCounter.resetAfterCommit(user.getId(), user.getEmail());
     }
 
+    @Transactional
     public void deleteNotification(UUID notificationId, User user) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
@@ -81,9 +211,13 @@ public class NotificationService {
         }
 
         notificationRepository.delete(notification);
+
+        if (!notification.getIsRead()) {
+            unreadCounter.adjustAfterCommit(user.getId(), user.getEmail(), -1);
+        }
     }
 
     public Long getUnreadCount(User user) {
-        return notificationRepository.countByUserAndIsReadFalse(user);
+        return unreadCounter.get(user.getId(), () -> notificationRepository.countByUserAndIsReadFalse(user));
     }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatMessageResponseDTO;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A chat message that has been numbered and broadcast but not yet written.
+ */
+final class PendingChatMessage {
+
+    private final ChatRoomDescriptor room;
+    private final UUID id;
+    private final UUID senderId;
+    private final String message;
+    private final LocalDateTime sentAt;
+
+    // Renumbered by the write worker, under the room's monitor, if another node took the seq
+    private volatile long seq;
+
+    PendingChatMessage(ChatRoomDescriptor room, UUID id, UUID senderId, String message, LocalDateTime sentAt,
+            long seq) {
+        this.room = room;
+        this.id = id;
+        this.senderId = senderId;
+        this.message = message;
+        this.sentAt = sentAt;
+        this.seq = seq;
+    }
+
+    ChatRoomDescriptor getRoom() {
+        return room;
+    }
+
+    UUID getId() {
+        return id;
+    }
+
+    UUID getSenderId() {
+        return senderId;
+    }
+
+    String getMessage() {
+        return message;
+    }
+
+    LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    long getSeq() {
+        return seq;
+    }
+
+    void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    ChatMessageResponseDTO toResponse() {
+        return new ChatMessageResponseDTO(id, senderId, message, sentAt, seq);
+    }
+}
@@ -0,0 +1,213 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.AbstractSubProtocolEvent;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which users have a STOMP session on this node and what each session subscribed to, kept from
+ * the connect, subscribe, unsubscribe and disconnect events. Senders ask {@link #isSubscribed}
+ * before building a user frame, so nothing is serialized for a user nobody is listening for;
+ * notifications skipped that way stay in the database and reach the client through
+ * {@code /api/notifications/since}. Also exposed as the {@code presence} actuator endpoint, and
+ * the source of the session gauge and of disconnects split by whether the slow-consumer policy in
+ * WebSocketConfig closed the session.
+ */
+@Component
+@Endpoint(id = "presence")
+public class PresenceRegistry {
+
+    // Matches the user destination prefix set in WebSocketConfig
+    static final String USER_DESTINATION_PREFIX = "/user";
+
+    // Enough to outlast the events still in flight for a session when it closes
+    private static final int CLOSED_SESSIONS_REMEMBERED = 10_000;
+
+    private final SimpUserRegistry simpUserRegistry;
+    private final boolean clusterWide;
+
+    private final Map<String, SessionPresence> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+
+    // Events are published on several inbound threads, so a connect or subscribe can arrive after
+    // the disconnect; the ids of recently closed sessions keep those from registering them again
+    private final Set<String> closedSessions = Collections.newSetFromMap(Collections.synchronizedMap(
+            new LinkedHashMap<String, Boolean>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > CLOSED_SESSIONS_REMEMBERED;
+                }
+            }));
+
+    private final Counter slowConsumerDisconnects;
+    private final Counter otherDisconnects;
+
+    public PresenceRegistry(SimpUserRegistry simpUserRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${websocket.broker.relay.enabled:false}") boolean clusterWide) {
+        this.simpUserRegistry = simpUserRegistry;
+        this.clusterWide = clusterWide;
+
+        Gauge.builder("websocket.presence.users", sessionsByUser, Map::size).register(meterRegistry);
+        Gauge.builder("websocket.sessions", sessions, Map::size).register(meterRegistry);
+        this.slowConsumerDisconnects = meterRegistry.counter("websocket.sessions.disconnected", "reason", "slow_consumer");
+        this.otherDisconnects = meterRegistry.counter("websocket.sessions.disconnected", "reason", "other");
+    }
+
+    public boolean isOnline(String user) {
+        return sessionsByUser.containsKey(user) || (clusterWide && simpUserRegistry.getUser(user) != null);
+    }
+
+    /**
+     * Whether a frame sent with convertAndSendToUser(user, destination, ...) would reach anyone,
+     * i.e. some session of the user subscribed to {@code /user} + destination. With the broker
+     * relay, sessions on other nodes are looked up in the cluster-wide user registry; those are
+     * only as fresh as its last broadcast.
+     */
+    public boolean isSubscribed(String user, String destination) {
+        String subscribed = USER_DESTINATION_PREFIX + destination;
+        Set<String> sessionIds = sessionsByUser.get(user);
+        if (sessionIds != null) {
+            for (String sessionId : sessionIds) {
+                SessionPresence session = sessions.get(sessionId);
+                if (session != null && session.subscriptions().containsValue(subscribed)) {
+                    return true;
+                }
+            }
+        }
+        return clusterWide && isSubscribedElsewhere(user, subscribed);
+    }
+
+    @ReadOperation
+    public PresenceStats stats() {
+        int subscriptions = 0;
+        for (SessionPresence session : sessions.values()) {
+            subscriptions += session.subscriptions().size();
+        }
+        return new PresenceStats(sessionsByUser.size(), sessions.size(), subscriptions,
+                clusterWide ? simpUserRegistry.getUserCount() : sessionsByUser.size());
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        register(event);
+    }
+
+    // Subscriptions can be handled before the connected event on another inbound thread
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SessionPresence session = register(event);
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(event.getMessage().getHeaders());
+        String destination = SimpMessageHeaderAccessor.getDestination(event.getMessage().getHeaders());
+        if (session != null && subscriptionId != null && destination != null) {
+            session.subscriptions().put(subscriptionId, destination);
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SessionPresence session = sessions.get(sessionId(event));
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(event.getMessage().getHeaders());
+        if (session != null && subscriptionId != null) {
+            session.subscriptions().remove(subscriptionId);
+        }
+    }
+
+    // Can be published more than once for a session, so removal has to be idempotent
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        String sessionId = event.getSessionId();
+        // Marked closed before removal, so a registration racing with it undoes itself
+        if (!closedSessions.add(sessionId)) {
+            return;
+        }
+        remove(sessionId);
+
+        if (CloseStatus.SESSION_NOT_RELIABLE.equals(event.getCloseStatus())) {
+            slowConsumerDisconnects.increment();
+        } else {
+            otherDisconnects.increment();
+        }
+    }
+
+    private SessionPresence register(AbstractSubProtocolEvent event) {
+        String sessionId = sessionId(event);
+        if (sessionId == null || closedSessions.contains(sessionId)) {
+            return null;
+        }
+
+        // Unauthenticated sessions are counted but cannot receive user destinations
+        Principal principal = event.getUser();
+        String user = principal != null ? principal.getName() : null;
+        SessionPresence session = sessions.computeIfAbsent(sessionId,
+                id -> new SessionPresence(user, new ConcurrentHashMap<>()));
+        if (session.user() != null) {
+            sessionsByUser.compute(session.user(), (name, ids) -> {
+                Set<String> updated = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                updated.add(sessionId);
+                return updated;
+            });
+        }
+
+        // The disconnect may have run between the check above and the insert
+        if (closedSessions.contains(sessionId)) {
+            remove(sessionId);
+            return null;
+        }
+        return session;
+    }
+
+    private void remove(String sessionId) {
+        SessionPresence session = sessions.remove(sessionId);
+        if (session == null || session.user() == null) {
+            return;
+        }
+        sessionsByUser.computeIfPresent(session.user(), (user, ids) -> {
+            ids.remove(sessionId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private boolean isSubscribedElsewhere(String user, String subscribed) {
+        SimpUser simpUser = simpUserRegistry.getUser(user);
+        return simpUser != null && simpUser.getSessions().stream()
+                .flatMap(session -> session.getSubscriptions().stream())
+                .anyMatch(subscription -> subscribed.equals(subscription.getDestination()));
+    }
+
+    private static String sessionId(AbstractSubProtocolEvent event) {
+        return SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+    }
+
+    // Subscription id to destination, as the client subscribed to it; user is null for anonymous sessions
+    private record SessionPresence(String user, Map<String, String> subscriptions) {
+    }
+
+    /**
+     * Users and sessions connected to this node; {@code clusterUsers} counts every node when the
+     * broker relay is enabled.
+     */
+    public record PresenceStats(int users, int sessions, int subscriptions, int clusterUsers) {
+    }
+}
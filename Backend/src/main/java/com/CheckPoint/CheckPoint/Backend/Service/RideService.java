@@ -18,14 +18,14 @@ import java.util.stream.Collectors;
 @Service
 public class RideService {
     private final RideRepository rideRepository;
-    private final NotificationService notificationService;
     private final BookingRepository bookingRepository;
+    private final LifecycleStateMachine stateMachine;
 
-    public RideService(RideRepository rideRepository, NotificationService notificationService,
-            BookingRepository bookingRepository) {
+    public RideService(RideRepository rideRepository, BookingRepository bookingRepository,
+            LifecycleStateMachine stateMachine) {
         this.rideRepository = rideRepository;
-        this.notificationService = notificationService;
         this.bookingRepository = bookingRepository;
+        this.stateMachine = stateMachine;
     }
 
     @Transactional
@@ -40,6 +40,7 @@ public class RideService {
         ride.setPrice(request.getPrice());
         ride.setStatus(RideStatus.AVAILABLE);
         ride.setAvailableSeats(1);
+        ride.setInstantBook(Boolean.TRUE.equals(request.getInstantBook()));
 
         Ride savedRide = rideRepository.save(ride);
 
@@ -173,32 +174,9 @@ public class RideService {
         Ride ride = getRideEntityById(rideId);
         validateDriverOwnership(ride, driver);
 
-        if (ride.getStatus() == RideStatus.COMPLETED) {
-            throw new IllegalStateException("Cannot cancel a completed ride.");
-        }
-        if (ride.getStatus() == RideStatus.CANCELLED) {
-            throw new IllegalStateException("Ride is already cancelled.");
-        }
-        if (ride.getStatus() == RideStatus.IN_PROGRESS) {
-            throw new IllegalStateException("Cannot cancel a ride that is in progress.");
-        }
-
-        ride.setStatus(RideStatus.CANCELLED);
+        stateMachine.transition(ride, RideStatus.CANCELLED, driver);
         Ride savedRide = rideRepository.save(ride);
 
-        Booking booking = bookingRepository.findByRideAndStatus(savedRide, BookingStatus.ACCEPTED)
-                .stream().findFirst().orElse(null);
-
-        if (booking != null) {
-            notificationService.createAndSendNotification(
-                    booking.getPassenger(),
-                    NotificationType.RIDE_CANCELLED,
-                    "Ride Cancelled",
-                    driver.getFirstName() + " has cancelled the ride",
-                    savedRide.getId(),
-                    booking.getId());
-        }
-
         return new RideResponse(savedRide);
     }
 
@@ -211,11 +189,7 @@ public class RideService {
             throw new RuntimeException("You are not the driver of this ride");
         }
 
-        if (ride.getStatus() != RideStatus.AVAILABLE && ride.getStatus() != RideStatus.CONFIRMED) {
-            throw new RuntimeException("Cannot start ride with status: " + ride.getStatus());
-        }
-
-        ride.setStatus(RideStatus.IN_PROGRESS);
+        stateMachine.transition(ride, RideStatus.IN_PROGRESS, driver);
         Ride savedRide = rideRepository.save(ride);
 
         System.out.println("✅ Ride started successfully");
@@ -231,25 +205,10 @@ public class RideService {
             throw new RuntimeException("You are not the driver of this ride");
         }
 
-        if (ride.getStatus() != RideStatus.IN_PROGRESS) {
-            throw new RuntimeException("Can only complete rides that are in progress");
-        }
-
-        ride.setStatus(RideStatus.COMPLETED);
+        // Passengers are notified by LifecycleNotificationListener
+        stateMachine.transition(ride, RideStatus.COMPLETED, driver);
         Ride savedRide = rideRepository.save(ride);
 
-        // ✅ Notify all passengers that ride is completed
-        List<Booking> bookings = bookingRepository.findByRideAndStatus(ride, BookingStatus.ACCEPTED);
-        for (Booking booking : bookings) {
-            notificationService.createAndSendNotification(
-                    booking.getPassenger(),
-                    NotificationType.RIDE_COMPLETED,
-                    "Ride Completed!",
-                    "Your ride has been completed. Please proceed to payment.",
-                    ride.getId(),
-                    booking.getId());
-        }
-
         System.out.println("✅ Ride completed successfully");
         return new RideResponse(savedRide);
     }
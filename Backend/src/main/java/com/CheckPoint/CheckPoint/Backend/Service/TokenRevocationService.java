@@ -0,0 +1,98 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Model.RevokedToken;
+import com.CheckPoint.CheckPoint.Backend.Repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked token ids (jti), persisted so they survive restarts and reach every node. Only
+ * revocations that have not expired are held, so the request path is one lookup in a map sized
+ * by recent logouts rather than by issued tokens.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // Re-reads a little history on each refresh so rows committed late are not skipped
+    private static final long REFRESH_OVERLAP_SECONDS = 60;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastRefresh;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+            TransactionTemplate transactionTemplate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revoked.containsKey(tokenId);
+    }
+
+    public void revoke(String tokenId, UUID userId, Date expiresAt) {
+        LocalDateTime expiry = LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault());
+        revokedTokenRepository.save(new RevokedToken(tokenId, userId, expiry));
+        remember(tokenId, expiresAt.getTime());
+    }
+
+    // Loaded before the server takes traffic rather than on ApplicationReadyEvent,
+    // so no revoked token is accepted during startup
+    @PostConstruct
+    void rebuildFromDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> live = revokedTokenRepository.findByExpiresAtAfter(now);
+        live.forEach(token -> revoked.put(token.getTokenId(), toMillis(token.getExpiresAt())));
+        lastRefresh = now;
+        logger.info("Loaded {} revoked tokens", live.size());
+    }
+
+    // Picks up revocations made on other nodes
+    @Scheduled(fixedDelayString = "${security.revocation.refresh-millis:10000}")
+    public void refreshFromDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastRefresh.minusSeconds(REFRESH_OVERLAP_SECONDS);
+        revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(since, now)
+                .forEach(token -> remember(token.getTokenId(), toMillis(token.getExpiresAt())));
+        lastRefresh = now;
+    }
+
+    // An expired token is rejected by the parser anyway, so its revocation is no longer needed
+    @Scheduled(cron = "${security.revocation.trim-cron:0 */15 * * * *}")
+    public void trimExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        Integer deleted = transactionTemplate.execute(status ->
+                revokedTokenRepository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            logger.info("Trimmed {} expired token revocations", deleted);
+        }
+    }
+
+    private void remember(String tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        revoked.put(tokenId, expiresAtMillis);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
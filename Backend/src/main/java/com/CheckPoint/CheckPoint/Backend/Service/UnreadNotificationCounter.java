@@ -0,0 +1,163 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.DTO.UnreadCountResponse;
+import com.CheckPoint.CheckPoint.Backend.Repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * In-memory unread badge counts, seeded lazily from the database and kept in step with
+ * committed notification changes. Users that have not asked for their count are not tracked.
+ *
+ * <p>With the broker relay enabled, notifications for one user change on every node, so nothing
+ * is cached: reads go to the database and a committed change pushes a freshly counted badge.
+ */
+@Component
+public class UnreadNotificationCounter {
+
+    // Kept off /queue/notifications, where clients treat every frame as a notification
+    private static final String DESTINATION = "/queue/notifications/unread";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PresenceRegistry presenceRegistry;
+    private final NotificationRepository notificationRepository;
+    private final boolean clusterWide;
+    private final Map<UUID, Long> counts;
+    // Counts being read from the database, guarded by counts like the cache itself
+    private final Map<UUID, Seed> seeds = new HashMap<>();
+
+    public UnreadNotificationCounter(SimpMessagingTemplate messagingTemplate,
+            PresenceRegistry presenceRegistry,
+            NotificationRepository notificationRepository,
+            @Value("${notification.unread-cache.max-users:10000}") int maxUsers,
+            @Value("${websocket.broker.relay.enabled:false}") boolean clusterWide) {
+        this.messagingTemplate = messagingTemplate;
+        this.presenceRegistry = presenceRegistry;
+        this.notificationRepository = notificationRepository;
+        this.clusterWide = clusterWide;
+        this.counts = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Long> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    public long get(UUID userId, Supplier<Long> loader) {
+        if (clusterWide) {
+            return loader.get();
+        }
+        Seed seed;
+        synchronized (counts) {
+            Long cached = counts.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            seed = seeds.computeIfAbsent(userId, id -> new Seed());
+            seed.loaders++;
+        }
+
+        long loaded;
+        try {
+            loaded = loader.get();
+        } catch (RuntimeException e) {
+            synchronized (counts) {
+                release(userId, seed);
+            }
+            throw e;
+        }
+
+        synchronized (counts) {
+            release(userId, seed);
+            Long raced = counts.get(userId);
+            if (raced != null) {
+                return raced;
+            }
+            // A change that committed while the count was read may be missing from it
+            if (!seed.stale) {
+                counts.put(userId, loaded);
+            }
+            return loaded;
+        }
+    }
+
+    public void adjustAfterCommit(UUID userId, String email, long delta) {
+        if (clusterWide) {
+            afterCommit(() -> pushCounted(userId, email));
+            return;
+        }
+        afterCommit(() -> {
+            Long updated;
+            synchronized (counts) {
+                updated = counts.computeIfPresent(userId, (id, count) -> Math.max(0, count + delta));
+                Seed seed = seeds.get(userId);
+                if (updated == null && seed != null) {
+                    seed.stale = true;
+                }
+            }
+            if (updated != null) {
+                push(email, updated);
+            }
+        });
+    }
+
+    public void resetAfterCommit(UUID userId, String email) {
+        if (clusterWide) {
+            afterCommit(() -> pushCounted(userId, email));
+            return;
+        }
+        afterCommit(() -> {
+            synchronized (counts) {
+                counts.put(userId, 0L);
+            }
+            push(email, 0);
+        });
+    }
+
+    // A client that is not connected fetches its count when it next loads
+    private void push(String email, long count) {
+        if (!presenceRegistry.isSubscribed(email, DESTINATION)) {
+            return;
+        }
+        messagingTemplate.convertAndSendToUser(email, DESTINATION, new UnreadCountResponse(count));
+    }
+
+    private void pushCounted(UUID userId, String email) {
+        if (presenceRegistry.isSubscribed(email, DESTINATION)) {
+            push(email, notificationRepository.countByUser_IdAndIsReadFalse(userId));
+        }
+    }
+
+    private void release(UUID userId, Seed seed) {
+        if (--seed.loaders == 0) {
+            seeds.remove(userId);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Seed {
+        private int loaders;
+        private boolean stale;
+    }
+}
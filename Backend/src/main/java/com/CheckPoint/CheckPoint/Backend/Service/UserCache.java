@@ -0,0 +1,218 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Model.BankDetails;
+import com.CheckPoint.CheckPoint.Backend.Model.User;
+import com.CheckPoint.CheckPoint.Backend.Model.VehicleDetails;
+import com.CheckPoint.CheckPoint.Backend.Repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived, size-bounded copies of User entities for the hot lookup paths (request
+ * authentication, login, profile reads, chat sends). Entries are keyed by id with a secondary
+ * email index, expire after the TTL and are evicted by every write that goes through UserService.
+ * Every lookup gets its own copy, so a caller that modifies the user it was handed never changes
+ * what concurrent requests see.
+ *
+ * <p>A write only evicts on the node that made it. With the broker relay enabled, every node also
+ * polls for users updated elsewhere and drops its copies of them.
+ */
+@Component
+public class UserCache {
+
+    // Re-reads a little history on each refresh so rows committed late are not skipped
+    private static final long REFRESH_OVERLAP_SECONDS = 60;
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final boolean clusterWide;
+    private final Map<UUID, Entry> entries;
+    private final Map<String, UUID> idsByEmail = new HashMap<>();
+    private volatile LocalDateTime lastRefresh = LocalDateTime.now();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserCache(UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${security.user-cache.ttl-seconds:30}") long ttlSeconds,
+            @Value("${security.user-cache.max-size:10000}") int maxSize,
+            @Value("${websocket.broker.relay.enabled:false}") boolean clusterWide) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.clusterWide = clusterWide;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                if (size() > maxSize) {
+                    idsByEmail.remove(eldest.getValue().user.getEmail());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        this.hits = meterRegistry.counter("users.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("users.cache.requests", "result", "miss");
+        Gauge.builder("users.cache.size", this, cache -> cache.size()).register(meterRegistry);
+        Gauge.builder("users.cache.hit.ratio", this, cache -> cache.hitRatio()).register(meterRegistry);
+    }
+
+    public Optional<User> getById(UUID userId) {
+        return lookup(userId, () -> userRepository.findById(userId));
+    }
+
+    public Optional<User> getByEmail(String email) {
+        UUID userId;
+        synchronized (entries) {
+            userId = idsByEmail.get(email);
+        }
+        return lookup(userId, () -> userRepository.findByEmail(email));
+    }
+
+    /**
+     * What request authentication checks a token against, read off the cached entry without
+     * copying the user. A miss loads and caches the user like any other lookup.
+     */
+    public Optional<AccountState> getAccountState(UUID userId) {
+        return Optional.ofNullable(entry(userId, () -> userRepository.findById(userId)))
+                .map(Entry::state);
+    }
+
+    private Optional<User> lookup(UUID userId, Supplier<Optional<User>> loader) {
+        return Optional.ofNullable(entry(userId, loader))
+                .map(entry -> copyOf(entry.user()));
+    }
+
+    private Entry entry(UUID userId, Supplier<Optional<User>> loader) {
+        long now = System.currentTimeMillis();
+        if (userId != null) {
+            synchronized (entries) {
+                Entry cached = entries.get(userId);
+                if (cached != null && cached.expiresAt > now) {
+                    hits.increment();
+                    return cached;
+                }
+            }
+        }
+
+        misses.increment();
+        return loader.get()
+                .map(user -> put(user, now + ttlMillis))
+                .orElse(null);
+    }
+
+    private Entry put(User user, long expiresAt) {
+        User snapshot = copyOf(user);
+        Entry entry = new Entry(snapshot, AccountState.of(snapshot), expiresAt);
+        synchronized (entries) {
+            Entry previous = entries.put(user.getId(), entry);
+            if (previous != null && !previous.user.getEmail().equals(user.getEmail())) {
+                idsByEmail.remove(previous.user.getEmail());
+            }
+            idsByEmail.put(user.getEmail(), user.getId());
+        }
+        return entry;
+    }
+
+    // Evicts again after commit so a concurrent request cannot re-cache the pre-update row
+    public void evict(UUID userId) {
+        remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(userId);
+                }
+            });
+        }
+    }
+
+    // Picks up writes made on other nodes
+    @Scheduled(fixedDelayString = "${security.user-cache.refresh-millis:5000}")
+    public void evictUpdatedElsewhere() {
+        if (!clusterWide) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.findIdsUpdatedAfter(lastRefresh.minusSeconds(REFRESH_OVERLAP_SECONDS))
+                .forEach(this::remove);
+        lastRefresh = now;
+    }
+
+    private void remove(UUID userId) {
+        synchronized (entries) {
+            Entry removed = entries.remove(userId);
+            if (removed != null) {
+                idsByEmail.remove(removed.user.getEmail());
+            }
+        }
+    }
+
+    // Column state only; the lazy ride and booking collections cannot be read off a detached copy anyway
+    private static User copyOf(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setEmail(user.getEmail());
+        copy.setPassword(user.getPassword());
+        copy.setFirstName(user.getFirstName());
+        copy.setLastName(user.getLastName());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setLastLogin(user.getLastLogin());
+        copy.setTokenVersion(user.getTokenVersion());
+        copy.setGoogleId(user.getGoogleId());
+        copy.setLoginMethod(user.getLoginMethod());
+        copy.setProfileImageUrl(user.getProfileImageUrl());
+        copy.setAccountNonExpired(user.getAccountNonExpired());
+        copy.setAccountNonLocked(user.getAccountNonLocked());
+        copy.setCredentialsNonExpired(user.getCredentialsNonExpired());
+        copy.setEnabled(user.getEnabled());
+        BankDetails bank = user.getBankDetails();
+        if (bank != null) {
+            copy.setBankDetails(new BankDetails(bank.getAccountNumber(), bank.getIfscCode(),
+                    bank.getAccountHolderName(), bank.getBankName()));
+        }
+        VehicleDetails vehicle = user.getVehicleDetails();
+        if (vehicle != null) {
+            copy.setVehicleDetails(new VehicleDetails(vehicle.getVehicleModel(), vehicle.getVehicleNumber(),
+                    vehicle.getVehicleColor(), vehicle.getIsVerified()));
+        }
+        return copy;
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private record Entry(User user, AccountState state, long expiresAt) {
+    }
+
+    public record AccountState(String email, int tokenVersion, boolean usable) {
+
+        public static AccountState of(User user) {
+            return new AccountState(user.getEmail(), user.getTokenVersion(),
+                    user.isEnabled() && user.isAccountNonLocked() && user.isAccountNonExpired());
+        }
+    }
+}
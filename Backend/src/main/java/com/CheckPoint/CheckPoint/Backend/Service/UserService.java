@@ -5,6 +5,7 @@ import com.CheckPoint.CheckPoint.Backend.Model.VehicleDetails;
 import com.CheckPoint.CheckPoint.Backend.Repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -16,7 +17,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
@@ -24,14 +25,31 @@ public class UserService implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        User user = userCache.getByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
         return user;
     }
 
+    // Called by DaoAuthenticationProvider after a successful login when the stored hash is below the configured cost
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = (User) userDetails;
+        userRepository.updatePasswordById(user.getId(), newPassword);
+        userCache.evict(user.getId());
+        user.setPassword(newPassword);
+        return user;
+    }
+
     @Transactional
     public User createUser(String email, String password, String firstName, String lastName) {
         if (userRepository.existsByEmail(email)) {
@@ -59,14 +77,21 @@ public class UserService implements UserDetailsService {
         return userRepository.findByEmail(email);
     }
 
+    // Persisted in batches by LastLoginRecorder; returns the recorded time
+    public LocalDateTime recordLogin(User user) {
+        return lastLoginRecorder.record(user);
+    }
+
+    // Every token issued before this call stops authenticating
     @Transactional
-    public void updateLastLoginByEmail(String email) {
-        userRepository.updateLastLoginByEmail(email, LocalDateTime.now());
+    public User revokeTokens(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        return updateUser(user);
     }
 
     @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
+        return userCache.getByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
@@ -94,11 +119,15 @@ public class UserService implements UserDetailsService {
             existingUser.setPassword(userUpdates.getPassword());
         }
 
+        userCache.evict(userId);
         return userRepository.save(existingUser);
     }
 
     @Transactional
     public User updateUser(User user) {
+        if (user.getId() != null) {
+            userCache.evict(user.getId());
+        }
         return userRepository.save(user);
     }
 
@@ -117,7 +146,7 @@ public class UserService implements UserDetailsService {
     }
 
     public User getUserProfile(UUID userId) {
-        return userRepository.findById(userId)
+        return userCache.getById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
@@ -127,6 +156,7 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         user.setVehicleDetails(vehicleDetails);
+        userCache.evict(userId);
         return userRepository.save(user);
     }
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.CheckPoint.CheckPoint.Backend.Config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketMessagingAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketServletAutoConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two nodes in relay mode against an embedded Artemis STOMP broker: a user message sent on one
+ * node reaches the user's session on the other, through the cluster-wide user registry or the
+ * unresolved-user broadcast, whichever gets there first.
+ */
+class BrokerRelayFanOutTests {
+
+	private static final String USER = "alice@checkpoint.test";
+	private static final String DESTINATION = "/queue/notifications";
+
+	@TempDir
+	static Path brokerDir;
+
+	private static EmbeddedActiveMQ broker;
+	private static ConfigurableApplicationContext nodeA;
+	private static ConfigurableApplicationContext nodeB;
+	private static WebSocketStompClient stompClient;
+
+	@BeforeAll
+	static void startBrokerAndNodes() throws Exception {
+		int stompPort = freePort();
+		ConfigurationImpl configuration = new ConfigurationImpl();
+		configuration.setBrokerInstance(brokerDir.toFile());
+		configuration.setPersistenceEnabled(false);
+		configuration.setSecurityEnabled(false);
+		configuration.addAcceptorConfiguration("stomp", "tcp://localhost:" + stompPort + "?protocols=STOMP");
+
+		broker = new EmbeddedActiveMQ();
+		broker.setConfiguration(configuration);
+		broker.start();
+
+		nodeA = startNode(stompPort);
+		nodeB = startNode(stompPort);
+		await().atMost(Duration.ofSeconds(30)).until(() -> relayAvailable(nodeA) && relayAvailable(nodeB));
+
+		stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+		stompClient.setMessageConverter(new StringMessageConverter());
+	}
+
+	@AfterAll
+	static void stopNodesAndBroker() throws Exception {
+		if (nodeA != null) {
+			nodeA.close();
+		}
+		if (nodeB != null) {
+			nodeB.close();
+		}
+		if (broker != null) {
+			broker.stop();
+		}
+	}
+
+	@Test
+	void userMessageSentOnOneNodeReachesASessionOnTheOther() throws Exception {
+		BlockingQueue<String> received = new LinkedBlockingQueue<>();
+		StompSession session = connect(nodeB, USER);
+		session.subscribe("/user" + DESTINATION, new StompFrameHandler() {
+			@Override
+			public Type getPayloadType(StompHeaders headers) {
+				return String.class;
+			}
+
+			@Override
+			public void handleFrame(StompHeaders headers, Object payload) {
+				received.add((String) payload);
+			}
+		});
+
+		// The subscription reaches node B's broker connection asynchronously, so keep sending until one arrives
+		SimpMessagingTemplate nodeATemplate = nodeA.getBean(SimpMessagingTemplate.class);
+		String[] delivered = new String[1];
+		await().atMost(Duration.ofSeconds(30)).pollInterval(Duration.ofMillis(250)).until(() -> {
+			nodeATemplate.convertAndSendToUser(USER, DESTINATION, "booking accepted");
+			delivered[0] = received.poll();
+			return delivered[0] != null;
+		});
+
+		assertEquals("booking accepted", delivered[0]);
+		session.disconnect();
+	}
+
+	private static StompSession connect(ConfigurableApplicationContext node, String user) throws Exception {
+		StompHeaders connectHeaders = new StompHeaders();
+		connectHeaders.setLogin(user);
+		int port = ((WebServerApplicationContext) node).getWebServer().getPort();
+		return stompClient.connectAsync("ws://localhost:{port}/ws/websocket", new WebSocketHttpHeaders(),
+				connectHeaders, new StompSessionHandlerAdapter() {
+				}, port).get(10, TimeUnit.SECONDS);
+	}
+
+	private static ConfigurableApplicationContext startNode(int stompPort) {
+		// Command-line arguments, so a local application.properties cannot override them
+		return SpringApplication.run(RelayNode.class,
+				"--server.port=0",
+				"--spring.main.banner-mode=off",
+				"--websocket.broker.relay.enabled=true",
+				"--websocket.broker.relay.host=localhost",
+				"--websocket.broker.relay.port=" + stompPort);
+	}
+
+	private static boolean relayAvailable(ConfigurableApplicationContext node) {
+		return node.getBean("stompBrokerRelayMessageHandler", AbstractBrokerMessageHandler.class).isBrokerAvailable();
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	@SpringBootConfiguration
+	@ImportAutoConfiguration({ ServletWebServerFactoryAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+			WebSocketServletAutoConfiguration.class, WebSocketMessagingAutoConfiguration.class,
+			JacksonAutoConfiguration.class })
+	@Import({ WebSocketConfig.class, PayloadEncodingInterceptor.class, SlowConsumerCloser.class })
+	static class RelayNode {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		WebSocketAuthInterceptor webSocketAuthInterceptor() {
+			return new LoginHeaderAuthInterceptor();
+		}
+	}
+
+	// Stands in for JWT authentication: the CONNECT frame's login header names the user
+	static class LoginHeaderAuthInterceptor extends WebSocketAuthInterceptor {
+
+		LoginHeaderAuthInterceptor() {
+			super(null, null, null, null);
+		}
+
+		@Override
+		public Message<?> preSend(Message<?> message, MessageChannel channel) {
+			StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+			if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand()) && accessor.getLogin() != null) {
+				accessor.setUser(new UsernamePasswordAuthenticationToken(accessor.getLogin(), null, List.of()));
+				return message;
+			}
+			return super.preSend(message, channel);
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.CheckPoint.CheckPoint.Backend.Config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompactPayloadCodecTests {
+
+	private final CompactPayloadCodec codec = new CompactPayloadCodec(new JsonFactory(), ZoneOffset.UTC);
+
+	@Test
+	void shortensKnownFieldNamesAtEveryDepth() throws IOException {
+		assertEquals("{\"i\":\"m-1\",\"m\":\"On my way\",\"q\":7,\"extra\":[1,{\"b\":\"b-1\",\"note\":null}]}",
+				encode("{\"messageId\":\"m-1\",\"message\":\"On my way\",\"seq\":7,\"extra\":[1,{\"bookingId\":\"b-1\",\"note\":null}]}"));
+	}
+
+	@Test
+	void sendsTimestampsAsEpochMillisInTheServerZone() throws IOException {
+		assertEquals("{\"t\":1767323045000}", encode("{\"sentAt\":\"2026-01-02T03:04:05\"}"));
+		assertEquals("{\"t\":1767323045123}", encode("{\"createdAt\":\"2026-01-02T03:04:05.123\"}"));
+	}
+
+	@Test
+	void leavesTimestampsItCannotParseAsTheyWere() throws IOException {
+		assertEquals("{\"t\":\"yesterday\"}", encode("{\"timestamp\":\"yesterday\"}"));
+	}
+
+	@Test
+	void rewritesOnlyTimestampFields() throws IOException {
+		assertEquals("{\"m\":\"2026-01-02T03:04:05\",\"ty\":\"CHAT\"}",
+				encode("{\"message\":\"2026-01-02T03:04:05\",\"type\":\"CHAT\"}"));
+	}
+
+	private String encode(String json) throws IOException {
+		return new String(codec.encode(json.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+	}
+}
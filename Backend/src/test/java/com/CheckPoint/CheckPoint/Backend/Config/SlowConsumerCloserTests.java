@@ -0,0 +1,141 @@
+package com.CheckPoint.CheckPoint.Backend.Config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlowConsumerCloserTests {
+
+	private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+	private final SlowConsumerCloser closer = new SlowConsumerCloser(meters);
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+	@AfterEach
+	void stopExecutor() {
+		release.countDown();
+		executor.shutdown();
+	}
+
+	@Test
+	void frameTheOutboundQueueCannotTakeClosesItsSession() throws Exception {
+		WebSocketSession slow = open("slow");
+		WebSocketSession other = open("other");
+		ExecutorSubscribableChannel outbound = outboundChannel(1, 1);
+
+		// One frame is being written and one waits in the queue; the next has nowhere to go
+		outbound.send(frame("other"));
+		outbound.send(frame("other"));
+		outbound.send(frame("slow"));
+
+		verify(slow).close(CloseStatus.SESSION_NOT_RELIABLE);
+		verify(other, never()).close(CloseStatus.SESSION_NOT_RELIABLE);
+		assertEquals(1.0, meters.get("websocket.frames.dropped").counter().count());
+	}
+
+	@Test
+	void sessionThatFallsBehindItsSendBufferIsClosed() throws Exception {
+		CountDownLatch sending = new CountDownLatch(1);
+		WebSocketSession slow = mock(WebSocketSession.class);
+		when(slow.getId()).thenReturn("slow");
+		when(slow.isOpen()).thenReturn(true);
+		doAnswer(invocation -> {
+			sending.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return null;
+		}).when(slow).sendMessage(any());
+
+		// Limits applied the way WebSocketConfig.configureWebSocketTransport applies them
+		SubProtocolWebSocketHandler handler = new SubProtocolWebSocketHandler(mock(MessageChannel.class),
+				mock(SubscribableChannel.class));
+		handler.addProtocolHandler(new StompSubProtocolHandler());
+		handler.setSendTimeLimit(10_000);
+		handler.setSendBufferSizeLimit(64);
+		handler.start();
+		handler.afterConnectionEstablished(slow);
+
+		// The first frame is stuck on the socket, so the next one has to be buffered
+		Thread writer = new Thread(() -> handler.handleMessage(frame("slow", new byte[8])));
+		writer.start();
+		assertTrue(sending.await(10, TimeUnit.SECONDS));
+		handler.handleMessage(frame("slow", new byte[128]));
+
+		verify(slow).close(CloseStatus.SESSION_NOT_RELIABLE);
+		release.countDown();
+		writer.join(10_000);
+		handler.stop();
+	}
+
+	@Test
+	void closedSessionsAreForgotten() throws Exception {
+		WebSocketSession session = open("s1");
+		closer.decorate(mock(WebSocketHandler.class)).afterConnectionClosed(session, CloseStatus.NORMAL);
+
+		closer.close("s1");
+
+		verify(session, never()).close(CloseStatus.SESSION_NOT_RELIABLE);
+	}
+
+	private WebSocketSession open(String sessionId) throws Exception {
+		WebSocketSession session = mock(WebSocketSession.class);
+		when(session.getId()).thenReturn(sessionId);
+		closer.decorate(mock(WebSocketHandler.class)).afterConnectionEstablished(session);
+		return session;
+	}
+
+	// Configured as WebSocketConfig configures the client outbound channel, with a handler that blocks
+	private ExecutorSubscribableChannel outboundChannel(int threads, int queueCapacity) {
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setRejectedExecutionHandler(closer);
+		executor.initialize();
+
+		ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel(executor);
+		channel.subscribe(message -> {
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		return channel;
+	}
+
+	private static Message<byte[]> frame(String sessionId) {
+		return frame(sessionId, new byte[0]);
+	}
+
+	private static Message<byte[]> frame(String sessionId, byte[] payload) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		accessor.setSessionId(sessionId);
+		accessor.setDestination("/queue/notifications");
+		accessor.setSubscriptionId("sub-0");
+		return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+	}
+}
@@ -0,0 +1,76 @@
+package com.CheckPoint.CheckPoint.Backend.Config;
+
+import com.CheckPoint.CheckPoint.Backend.DTO.LocationResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one location frame as the server builds it per recipient: plain JSON as Jackson writes
+ * it, versus the same JSON rewritten into the compact encoding. Frame sizes are printed at setup.
+ * Not picked up by surefire; run {@link #main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StompPayloadEncodingBenchmark {
+
+	private ObjectMapper objectMapper;
+	private CompactPayloadCodec codec;
+	private LocationResponseDto location;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		// Configured as Spring Boot configures the messaging converter's mapper
+		objectMapper = new ObjectMapper()
+				.registerModule(new JavaTimeModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		codec = new CompactPayloadCodec(objectMapper.getFactory(), ZoneId.systemDefault());
+		location = new LocationResponseDto(UUID.randomUUID(), UUID.randomUUID(), "DRIVER", "Aarav Sharma",
+				19.076090, 72.877426, LocalDateTime.now());
+
+		byte[] json = objectMapper.writeValueAsBytes(location);
+		byte[] compact = codec.encode(json);
+		System.out.printf("%nlocation frame body: json=%d bytes, compact=%d bytes (%.0f%%)%n",
+				json.length, compact.length, 100.0 * compact.length / json.length);
+	}
+
+	@Benchmark
+	public byte[] plainJson() throws IOException {
+		return objectMapper.writeValueAsBytes(location);
+	}
+
+	@Benchmark
+	public byte[] compactJson() throws IOException {
+		return codec.encode(objectMapper.writeValueAsBytes(location));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(StompPayloadEncodingBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
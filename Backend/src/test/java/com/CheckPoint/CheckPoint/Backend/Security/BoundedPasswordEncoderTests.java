@@ -0,0 +1,86 @@
+package com.CheckPoint.CheckPoint.Backend.Security;
+
+import com.CheckPoint.CheckPoint.Backend.Exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTests {
+
+	private static final int COST = 5;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private ThreadPoolTaskExecutor executor;
+
+	@AfterEach
+	void shutDown() {
+		release.countDown();
+		executor.shutdown();
+	}
+
+	@Test
+	void hashesAndVerifiesOnTheWorkerPool() {
+		BoundedPasswordEncoder encoder = encoder(2, 10, 5_000);
+
+		String hash = encoder.encode("correct horse");
+
+		assertTrue(encoder.matches("correct horse", hash));
+		assertFalse(encoder.matches("wrong horse", hash));
+		assertEquals(1, meterRegistry.timer("security.password.hash", "operation", "encode").count());
+	}
+
+	@Test
+	void turnsCallersAwayOnceTheQueueIsFull() {
+		BoundedPasswordEncoder encoder = encoder(1, 0, 5_000);
+		occupyWorker();
+
+		assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("correct horse"));
+		assertEquals(1, meterRegistry.counter("security.password.rejected").count());
+	}
+
+	@Test
+	void turnsCallersAwayThatWaitTooLong() {
+		BoundedPasswordEncoder encoder = encoder(1, 10, 50);
+		occupyWorker();
+
+		assertThrows(PasswordHashingBusyException.class, () -> encoder.matches("correct horse", "$2a$05$x"));
+		assertEquals(1, meterRegistry.counter("security.password.rejected").count());
+	}
+
+	@Test
+	void asksForHashesBelowTheConfiguredCostToBeUpgraded() {
+		BoundedPasswordEncoder encoder = encoder(1, 10, 5_000);
+
+		assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("correct horse")));
+		assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(COST).encode("correct horse")));
+	}
+
+	private BoundedPasswordEncoder encoder(int threads, int queueCapacity, long maxWaitMillis) {
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(queueCapacity);
+		executor.initialize();
+		return new BoundedPasswordEncoder(COST, executor, maxWaitMillis, meterRegistry);
+	}
+
+	private void occupyWorker() {
+		executor.execute(() -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+	}
+}
@@ -0,0 +1,83 @@
+package com.CheckPoint.CheckPoint.Backend.Security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Tokens validated per second: the original per-call parser/key path versus the cached,
+ * single-parse path. Not picked up by surefire; run {@link #main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtValidationBenchmark {
+
+	private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+	private JwtUtil jwtUtil;
+	private UserDetails userDetails;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		jwtUtil = new JwtUtil();
+		ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+		ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+		jwtUtil.init();
+
+		userDetails = new User("rider@checkpoint.test", "", List.of());
+		token = jwtUtil.generateToken(userDetails);
+	}
+
+	// Mirrors the previous JwtUtil: fresh key and parser per call, three parses per validation
+	@Benchmark
+	public boolean perCallParser() {
+		String username = legacyParse(token).getSubject();
+		boolean matches = legacyParse(token).getSubject().equals(userDetails.getUsername());
+		boolean expired = legacyParse(token).getExpiration().before(new Date());
+		return username != null && matches && !expired;
+	}
+
+	@Benchmark
+	public boolean cachedParser() {
+		Claims claims = jwtUtil.parseClaims(token);
+		return jwtUtil.validateToken(claims, userDetails);
+	}
+
+	private static Claims legacyParse(String token) {
+		return Jwts.parserBuilder()
+				.setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+				.build()
+				.parseClaimsJws(token)
+				.getBody();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(JwtValidationBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
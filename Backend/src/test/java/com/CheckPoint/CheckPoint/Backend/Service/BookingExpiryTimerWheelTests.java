@@ -0,0 +1,55 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingExpiryTimerWheelTests {
+
+	private static final long START = 1_000_000L;
+
+	@Test
+	void expiresEntriesOnceTheirDeadlinePasses() {
+		BookingExpiryService.TimerWheel wheel = new BookingExpiryService.TimerWheel(1000, 8, START);
+		UUID bookingId = UUID.randomUUID();
+		wheel.schedule(bookingId, START + 3000);
+
+		assertTrue(wheel.advance(START + 2000).isEmpty());
+		assertEquals(List.of(bookingId), wheel.advance(START + 3000));
+		assertTrue(wheel.advance(START + 4000).isEmpty());
+	}
+
+	@Test
+	void keepsEntriesScheduledBeyondOneRevolution() {
+		BookingExpiryService.TimerWheel wheel = new BookingExpiryService.TimerWheel(1000, 8, START);
+		UUID bookingId = UUID.randomUUID();
+		wheel.schedule(bookingId, START + 20_000);
+
+		assertTrue(wheel.advance(START + 8000).isEmpty());
+		assertTrue(wheel.advance(START + 16_000).isEmpty());
+		assertEquals(List.of(bookingId), wheel.advance(START + 20_000));
+	}
+
+	@Test
+	void cancelledEntriesNeverExpire() {
+		BookingExpiryService.TimerWheel wheel = new BookingExpiryService.TimerWheel(1000, 8, START);
+		UUID bookingId = UUID.randomUUID();
+		wheel.schedule(bookingId, START + 2000);
+		wheel.cancel(bookingId);
+
+		assertTrue(wheel.advance(START + 5000).isEmpty());
+	}
+
+	@Test
+	void overdueEntriesFireOnTheNextTick() {
+		BookingExpiryService.TimerWheel wheel = new BookingExpiryService.TimerWheel(1000, 8, START);
+		UUID bookingId = UUID.randomUUID();
+		wheel.schedule(bookingId, START - 60_000);
+
+		assertEquals(List.of(bookingId), wheel.advance(START + 1000));
+	}
+}
@@ -0,0 +1,83 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatSearchIndexTests {
+
+	private final UUID room = UUID.randomUUID();
+	private final UUID otherRoom = UUID.randomUUID();
+
+	@Test
+	void matchesEveryTermNewestFirstWithinTheGivenRooms() {
+		ChatSearchIndex index = new ChatSearchIndex(100, 8);
+		UUID older = add(index, room, "Pickup at the Main gate?");
+		add(index, room, "the gate is closed");
+		UUID newer = add(index, room, "main GATE, 5 minutes");
+		add(index, otherRoom, "main gate works for me");
+
+		assertEquals(List.of(newer, older), index.search("gate main", Set.of(room), 10));
+		assertEquals(List.of(newer), index.search("gate main", Set.of(room), 1));
+		assertTrue(index.search("gate airport", Set.of(room), 10).isEmpty());
+	}
+
+	@Test
+	void keepsResultsAcrossSealingAndMerging() {
+		ChatSearchIndex index = new ChatSearchIndex(10, 2);
+		List<UUID> expected = new ArrayList<>();
+		for (int i = 0; i < 95; i++) {
+			UUID id = add(index, room, i % 3 == 0 ? "running late, sorry" : "on my way");
+			if (i % 3 == 0) {
+				expected.add(0, id);
+			}
+		}
+		assertEquals(9, index.stats().sealedSegments());
+
+		assertTrue(index.mergeSegments() > 0);
+		assertEquals(2, index.stats().sealedSegments());
+		assertEquals(expected, index.search("late", Set.of(room), 100));
+	}
+
+	@Test
+	void otherRoomsDoNotCrowdOutOlderSegments() {
+		ChatSearchIndex index = new ChatSearchIndex(4, 8);
+		UUID oldest = add(index, room, "parking level two");
+		for (int i = 0; i < 10; i++) {
+			add(index, otherRoom, "parking is full");
+		}
+		UUID newest = add(index, room, "parking lot entrance");
+
+		assertEquals(List.of(newest, oldest), index.search("parking", Set.of(room), 10));
+		assertEquals(List.of(newest), index.search("parking", Set.of(room), 1));
+		assertEquals(3, index.search("parking", Set.of(room, otherRoom), 3).size());
+	}
+
+	@Test
+	void rebuildKeepsMessagesAddedWhileItRan() {
+		ChatSearchIndex index = new ChatSearchIndex(100, 8);
+		add(index, room, "stale entry");
+
+		ChatSearchIndex.Rebuild rebuild = index.startRebuild();
+		UUID stored = UUID.randomUUID();
+		rebuild.add(new ChatSearchIndex.IndexedMessage(stored, room, "meet at the station"));
+		UUID live = add(index, room, "station entrance B");
+		rebuild.install();
+
+		assertEquals(List.of(live, stored), index.search("station", Set.of(room), 10));
+		assertTrue(index.search("stale", Set.of(room), 10).isEmpty());
+		assertEquals(2, index.stats().documents());
+	}
+
+	private static UUID add(ChatSearchIndex index, UUID roomId, String text) {
+		UUID messageId = UUID.randomUUID();
+		index.add(new ChatSearchIndex.IndexedMessage(messageId, roomId, text));
+		return messageId;
+	}
+}
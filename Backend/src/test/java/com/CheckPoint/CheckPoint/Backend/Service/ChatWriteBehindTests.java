@@ -0,0 +1,182 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatPersistedResponse;
+import com.CheckPoint.CheckPoint.Backend.DTO.ChatResequencedResponse;
+import com.CheckPoint.CheckPoint.Backend.Model.ChatDeadLetter;
+import com.CheckPoint.CheckPoint.Backend.Model.ChatMessage;
+import com.CheckPoint.CheckPoint.Backend.Repository.BookingRepository;
+import com.CheckPoint.CheckPoint.Backend.Repository.ChatDeadLetterRepository;
+import com.CheckPoint.CheckPoint.Backend.Repository.ChatMessageRepository;
+import com.CheckPoint.CheckPoint.Backend.Repository.ChatRoomRepository;
+import com.CheckPoint.CheckPoint.Backend.Repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatWriteBehindTests {
+
+	private final ChatMessageRepository chatMessageRepository = mock(ChatMessageRepository.class);
+	private final ChatDeadLetterRepository chatDeadLetterRepository = mock(ChatDeadLetterRepository.class);
+	private final ChatRoomRepository chatRoomRepository = mock(ChatRoomRepository.class);
+	private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+	private final TransactionTemplate transactions = new TransactionTemplate(mock(PlatformTransactionManager.class));
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	// Flushes run when the test says so, so several offers can land in one batch
+	private final List<Runnable> tasks = new ArrayList<>();
+
+	private final ChatRoomDirectory directory = new ChatRoomDirectory(mock(BookingRepository.class), chatRoomRepository,
+			chatMessageRepository, transactions, meterRegistry, 100, false);
+
+	@Test
+	void renumbersPastSeqsAnotherNodeHasWritten() {
+		ChatRoomDescriptor room = room(2);
+		PendingChatMessage first = message(room, 1);
+		PendingChatMessage second = message(room, 2);
+		when(chatMessageRepository.findMaxSeq(room.getRoomId())).thenReturn(5L);
+		when(chatMessageRepository.saveAll(any()))
+				.thenThrow(new DataIntegrityViolationException("Duplicate entry for uk_chat_messages_room_seq"))
+				.thenThrow(new DataIntegrityViolationException("Duplicate entry for uk_chat_messages_room_seq"))
+				.thenReturn(List.of());
+
+		ChatWriteBehind writeBehind = writeBehind(10);
+		writeBehind.offer(first);
+		writeBehind.offer(second);
+		runTasks();
+
+		assertEquals(6, first.getSeq());
+		assertEquals(7, second.getSeq());
+		assertEquals(7, room.getLastSeq());
+		ArgumentCaptor<ChatResequencedResponse> resequenced = ArgumentCaptor.captor();
+		verify(messagingTemplate).convertAndSend(eq("/topic/chat/" + room.getBookingId() + "/resequenced"),
+				resequenced.capture());
+		assertEquals(List.of(new ChatResequencedResponse.Entry(first.getId(), 6),
+				new ChatResequencedResponse.Entry(second.getId(), 7)), resequenced.getValue().getMessages());
+
+		writeBehind.flush();
+
+		ArgumentCaptor<Iterable<ChatMessage>> saved = ArgumentCaptor.captor();
+		verify(chatMessageRepository, times(3)).saveAll(saved.capture());
+		List<Long> seqs = new ArrayList<>();
+		saved.getValue().forEach(message -> seqs.add(message.getSeq()));
+		assertEquals(List.of(6L, 7L), seqs);
+		ArgumentCaptor<ChatPersistedResponse> persisted = ArgumentCaptor.captor();
+		verify(messagingTemplate).convertAndSend(eq("/topic/chat/" + room.getBookingId() + "/persisted"),
+				persisted.capture());
+		assertEquals(7, persisted.getValue().getPersistedSeq());
+	}
+
+	@Test
+	void oneFailingRoomDoesNotHoldBackTheOthers() {
+		ChatRoomDescriptor failing = room(1);
+		ChatRoomDescriptor healthy = room(1);
+		when(chatMessageRepository.saveAll(any()))
+				.thenThrow(new IllegalStateException("db down"))
+				.thenThrow(new IllegalStateException("db down"))
+				.thenReturn(List.of());
+
+		ChatWriteBehind writeBehind = writeBehind(10);
+		writeBehind.offer(message(failing, 1));
+		writeBehind.offer(message(healthy, 1));
+		runTasks();
+
+		verify(messagingTemplate).convertAndSend(eq("/topic/chat/" + healthy.getBookingId() + "/persisted"),
+				any(ChatPersistedResponse.class));
+		verify(messagingTemplate, never()).convertAndSend(eq("/topic/chat/" + failing.getBookingId() + "/persisted"),
+				any(ChatPersistedResponse.class));
+		assertEquals(1, meterRegistry.get("chat.write.parked").gauge().value());
+	}
+
+	@Test
+	void deadLettersARoomAfterTheLastAttempt() {
+		ChatRoomDescriptor room = room(2);
+		PendingChatMessage first = message(room, 1);
+		PendingChatMessage second = message(room, 2);
+		when(chatMessageRepository.saveAll(any())).thenThrow(new IllegalStateException("db down"));
+
+		ChatWriteBehind writeBehind = writeBehind(2);
+		writeBehind.offer(first);
+		writeBehind.offer(second);
+		runTasks();
+
+		// Each retry waits out the room's backoff before it is attempted
+		await().atMost(Duration.ofSeconds(5)).until(() -> {
+			writeBehind.poll();
+			runTasks();
+			return meterRegistry.counter("chat.write.failed").count() == 2;
+		});
+
+		ArgumentCaptor<Iterable<ChatDeadLetter>> letters = ArgumentCaptor.captor();
+		verify(chatDeadLetterRepository).saveAll(letters.capture());
+		List<ChatDeadLetter> deadLetters = new ArrayList<>();
+		letters.getValue().forEach(deadLetters::add);
+		assertEquals(2, deadLetters.size());
+		assertEquals(first.getId(), deadLetters.get(0).getId());
+		assertEquals(2L, deadLetters.get(1).getSeq());
+		assertEquals(room.getBookingId(), deadLetters.get(1).getBookingId());
+		assertEquals("db down", deadLetters.get(1).getLastError());
+		assertEquals(0, meterRegistry.get("chat.write.parked").gauge().value());
+		verify(messagingTemplate, never()).convertAndSend(eq("/topic/chat/" + room.getBookingId() + "/persisted"),
+				any(ChatPersistedResponse.class));
+	}
+
+	@Test
+	void deadLettersWhatIsStillParkedAtShutdown() {
+		ChatRoomDescriptor room = room(1);
+		when(chatMessageRepository.saveAll(any())).thenThrow(new IllegalStateException("db down"));
+
+		ChatWriteBehind writeBehind = writeBehind(10);
+		writeBehind.offer(message(room, 1));
+		runTasks();
+		writeBehind.flush();
+
+		ArgumentCaptor<Iterable<ChatDeadLetter>> letters = ArgumentCaptor.captor();
+		verify(chatDeadLetterRepository).saveAll(letters.capture());
+		assertTrue(letters.getValue().iterator().hasNext());
+		assertEquals("Unwritten at shutdown", letters.getValue().iterator().next().getLastError());
+		assertEquals(0, meterRegistry.get("chat.write.parked").gauge().value());
+	}
+
+	private ChatWriteBehind writeBehind(int maxAttempts) {
+		return new ChatWriteBehind(chatMessageRepository, chatDeadLetterRepository, chatRoomRepository,
+				mock(UserRepository.class), directory, mock(ChatSearchIndex.class), messagingTemplate, transactions,
+				tasks::add, meterRegistry, 100, 100, maxAttempts);
+	}
+
+	private void runTasks() {
+		List<Runnable> pending = new ArrayList<>(tasks);
+		tasks.clear();
+		pending.forEach(Runnable::run);
+	}
+
+	private static ChatRoomDescriptor room(long lastSeq) {
+		return new ChatRoomDescriptor(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+				lastSeq);
+	}
+
+	private static PendingChatMessage message(ChatRoomDescriptor room, long seq) {
+		return new PendingChatMessage(room, UUID.randomUUID(), room.getPassengerId(), "On my way",
+				LocalDateTime.now(), seq);
+	}
+}
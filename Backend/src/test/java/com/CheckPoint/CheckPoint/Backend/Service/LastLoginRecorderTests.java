@@ -0,0 +1,85 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Model.User;
+import com.CheckPoint.CheckPoint.Backend.Repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class LastLoginRecorderTests {
+
+	private final UserRepository repository = mock(UserRepository.class);
+	private final LastLoginRecorder recorder = new LastLoginRecorder(repository,
+			new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+	@Test
+	void collapsesRepeatLoginsIntoOneUpdate() {
+		User user = user();
+
+		recorder.record(user);
+		LocalDateTime latest = recorder.record(user);
+		recorder.flush();
+
+		verify(repository).updateLastLoginById(user.getId(), latest);
+		verify(repository, times(1)).updateLastLoginById(any(), any());
+	}
+
+	@Test
+	void leavesTheUserItWasHandedAlone() {
+		User user = user();
+
+		recorder.record(user);
+
+		assertNull(user.getLastLogin());
+	}
+
+	@Test
+	void writesEachLoginOnlyOnce() {
+		User user = user();
+		recorder.record(user);
+
+		recorder.flush();
+		recorder.flush();
+
+		verify(repository, times(1)).updateLastLoginById(any(), any());
+	}
+
+	@Test
+	void skipsTheDatabaseWhenNobodyLoggedIn() {
+		recorder.flush();
+
+		verifyNoInteractions(repository);
+	}
+
+	@Test
+	void retriesAFailedFlush() {
+		User user = user();
+		LocalDateTime loggedInAt = recorder.record(user);
+		when(repository.updateLastLoginById(user.getId(), loggedInAt))
+				.thenThrow(new QueryTimeoutException("lock wait timeout"))
+				.thenReturn(1);
+
+		recorder.flush();
+		recorder.flush();
+
+		verify(repository, times(2)).updateLastLoginById(user.getId(), loggedInAt);
+	}
+
+	private static User user() {
+		User user = new User();
+		user.setId(UUID.randomUUID());
+		return user;
+	}
+}
@@ -0,0 +1,128 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Event.BookingStatusChangedEvent;
+import com.CheckPoint.CheckPoint.Backend.Event.RideStatusChangedEvent;
+import com.CheckPoint.CheckPoint.Backend.Model.Booking;
+import com.CheckPoint.CheckPoint.Backend.Model.BookingStatus;
+import com.CheckPoint.CheckPoint.Backend.Model.Ride;
+import com.CheckPoint.CheckPoint.Backend.Model.RideStatus;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class LifecycleStateMachineTests {
+
+	private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+	private final LifecycleStateMachine stateMachine = new LifecycleStateMachine(publisher);
+
+	@Test
+	void allowsExactlyTheRideTransitionsInTheTable() {
+		Map<RideStatus, Set<RideStatus>> allowed = Map.of(
+				RideStatus.AVAILABLE, EnumSet.of(RideStatus.CONFIRMED, RideStatus.IN_PROGRESS, RideStatus.CANCELLED),
+				RideStatus.CONFIRMED, EnumSet.of(RideStatus.IN_PROGRESS, RideStatus.CANCELLED),
+				RideStatus.IN_PROGRESS, EnumSet.of(RideStatus.COMPLETED),
+				RideStatus.COMPLETED, EnumSet.noneOf(RideStatus.class),
+				RideStatus.CANCELLED, EnumSet.noneOf(RideStatus.class));
+
+		for (RideStatus from : RideStatus.values()) {
+			for (RideStatus to : RideStatus.values()) {
+				assertEquals(allowed.get(from).contains(to), stateMachine.canTransition(from, to), from + " -> " + to);
+			}
+		}
+	}
+
+	@Test
+	void allowsExactlyTheBookingTransitionsInTheTable() {
+		Map<BookingStatus, Set<BookingStatus>> allowed = Map.of(
+				BookingStatus.PENDING, EnumSet.of(BookingStatus.REQUESTED, BookingStatus.ACCEPTED,
+						BookingStatus.REJECTED, BookingStatus.CANCELLED),
+				BookingStatus.REQUESTED, EnumSet.of(BookingStatus.ACCEPTED, BookingStatus.REJECTED,
+						BookingStatus.CANCELLED),
+				BookingStatus.ACCEPTED, EnumSet.of(BookingStatus.CANCELLED),
+				BookingStatus.REJECTED, EnumSet.noneOf(BookingStatus.class),
+				BookingStatus.CANCELLED, EnumSet.noneOf(BookingStatus.class));
+
+		for (BookingStatus from : BookingStatus.values()) {
+			for (BookingStatus to : BookingStatus.values()) {
+				assertEquals(allowed.get(from).contains(to), stateMachine.canTransition(from, to), from + " -> " + to);
+			}
+		}
+	}
+
+	@Test
+	void publishesAppliedRideTransitions() {
+		Ride ride = ride(RideStatus.CONFIRMED, 0);
+
+		stateMachine.transition(ride, RideStatus.IN_PROGRESS, null);
+
+		assertEquals(RideStatus.IN_PROGRESS, ride.getStatus());
+		ArgumentCaptor<RideStatusChangedEvent> event = ArgumentCaptor.forClass(RideStatusChangedEvent.class);
+		verify(publisher).publishEvent(event.capture());
+		assertEquals(RideStatus.CONFIRMED, event.getValue().getPreviousStatus());
+		assertEquals(RideStatus.IN_PROGRESS, event.getValue().getNewStatus());
+	}
+
+	@Test
+	void rejectedTransitionsLeaveTheStatusAndPublishNothing() {
+		Ride ride = ride(RideStatus.COMPLETED, 0);
+
+		assertThrows(IllegalStateException.class, () -> stateMachine.transition(ride, RideStatus.CANCELLED, null));
+
+		assertEquals(RideStatus.COMPLETED, ride.getStatus());
+		verifyNoInteractions(publisher);
+	}
+
+	@Test
+	void acceptingABookingNeedsAFreeSeat() {
+		Booking booking = booking(BookingStatus.REQUESTED, ride(RideStatus.CONFIRMED, 0));
+
+		assertThrows(IllegalStateException.class,
+				() -> stateMachine.transition(booking, BookingStatus.ACCEPTED, null));
+		assertEquals(BookingStatus.REQUESTED, booking.getStatus());
+	}
+
+	@Test
+	void answeredBookingsReportTheirCurrentStatus() {
+		IllegalStateException e = assertThrows(IllegalStateException.class,
+				() -> stateMachine.requireTransition(BookingStatus.REJECTED, BookingStatus.ACCEPTED));
+
+		assertTrue(e.getMessage().contains("already been rejected"), e.getMessage());
+	}
+
+	@Test
+	void creationIsPublishedWithoutAPreviousStatus() {
+		Booking booking = booking(BookingStatus.ACCEPTED, ride(RideStatus.CONFIRMED, 0));
+
+		stateMachine.created(booking, null);
+
+		ArgumentCaptor<BookingStatusChangedEvent> event = ArgumentCaptor.forClass(BookingStatusChangedEvent.class);
+		verify(publisher).publishEvent(event.capture());
+		assertTrue(event.getValue().isCreation());
+		assertEquals(BookingStatus.ACCEPTED, event.getValue().getNewStatus());
+	}
+
+	private static Ride ride(RideStatus status, int availableSeats) {
+		Ride ride = new Ride();
+		ride.setStatus(status);
+		ride.setAvailableSeats(availableSeats);
+		return ride;
+	}
+
+	private static Booking booking(BookingStatus status, Ride ride) {
+		Booking booking = new Booking();
+		booking.setStatus(status);
+		booking.setRide(ride);
+		return booking;
+	}
+}
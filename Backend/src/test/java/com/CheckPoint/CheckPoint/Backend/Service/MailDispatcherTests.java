@@ -0,0 +1,84 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Model.MailOutbox;
+import com.CheckPoint.CheckPoint.Backend.Model.OutboxStatus;
+import com.CheckPoint.CheckPoint.Backend.Repository.MailOutboxRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MailDispatcherTests {
+
+	@RegisterExtension
+	static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+	private final MailOutboxRepository repository = mock(MailOutboxRepository.class);
+
+	@Test
+	void sendsQueuedMailAndRemovesItFromTheOutbox() throws Exception {
+		MailOutbox first = queued("a@checkpoint.test");
+		MailOutbox second = queued("b@checkpoint.test");
+		when(repository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(eq(OutboxStatus.PENDING), any(), any()))
+				.thenReturn(List.of(first, second));
+
+		dispatcher(ServerSetupTest.SMTP.getPort()).pollOutbox();
+
+		MimeMessage[] received = smtp.getReceivedMessages();
+		assertEquals(2, received.length);
+		assertEquals("Password Reset Request", received[0].getSubject());
+
+		ArgumentCaptor<Iterable<UUID>> deleted = ArgumentCaptor.captor();
+		verify(repository).deleteAllByIdInBatch(deleted.capture());
+		assertEquals(List.of(first.getId(), second.getId()), deleted.getValue());
+	}
+
+	@Test
+	void backsOffWhenTheServerIsUnreachable() {
+		MailOutbox mail = queued("a@checkpoint.test");
+		when(repository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(eq(OutboxStatus.PENDING), any(), any()))
+				.thenReturn(List.of(mail));
+
+		dispatcher(1).pollOutbox();
+
+		verify(repository, never()).deleteAllByIdInBatch(any());
+		assertEquals(1, mail.getAttempts());
+		assertEquals(OutboxStatus.PENDING, mail.getStatus());
+		assertTrue(mail.getNextAttemptAt().isAfter(LocalDateTime.now()));
+	}
+
+	private MailDispatcher dispatcher(int port) {
+		JavaMailSenderImpl sender = new JavaMailSenderImpl();
+		sender.setHost("localhost");
+		sender.setPort(port);
+
+		TransactionTemplate transactions = new TransactionTemplate(mock(PlatformTransactionManager.class));
+		return new MailDispatcher(repository, sender, transactions, Runnable::run,
+				new SimpleMeterRegistry(), 50, 3, 300, "noreply@checkpoint.test");
+	}
+
+	private static MailOutbox queued(String recipient) {
+		MailOutbox mail = new MailOutbox(recipient, "Password Reset Request", "reset link");
+		mail.setId(UUID.randomUUID());
+		return mail;
+	}
+}
@@ -0,0 +1,149 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Model.Notification;
+import com.CheckPoint.CheckPoint.Backend.Model.NotificationOutbox;
+import com.CheckPoint.CheckPoint.Backend.Model.NotificationType;
+import com.CheckPoint.CheckPoint.Backend.Model.OutboxStatus;
+import com.CheckPoint.CheckPoint.Backend.Repository.NotificationOutboxRepository;
+import com.CheckPoint.CheckPoint.Backend.Repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationOutboxRelayTests {
+
+	private static final String RECIPIENT = "rider@checkpoint.test";
+	private static final long CLAIM_SECONDS = 60;
+	private static final int MAX_ATTEMPTS = 3;
+
+	private final NotificationOutboxRepository outboxRepository = mock(NotificationOutboxRepository.class);
+	private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+	private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+	private final PresenceRegistry presenceRegistry = mock(PresenceRegistry.class);
+
+	@Test
+	void claimsDueEntriesForTheLeaseAndRemovesDeliveredOnes() {
+		NotificationOutbox entry = queued(0);
+		subscribed(true);
+
+		LocalDateTime before = LocalDateTime.now();
+		relay().pollOutbox();
+
+		// The claim pushes the entry past the lease, so other nodes skip it while it is sent
+		assertFalse(entry.getNextAttemptAt().isBefore(before.plusSeconds(CLAIM_SECONDS)));
+		verify(messagingTemplate).convertAndSendToUser(eq(RECIPIENT), eq("/queue/notifications"), any());
+		assertEquals(List.of(entry.getId()), deleted());
+	}
+
+	@Test
+	void finishesEntriesForOfflineRecipientsWithoutSending() {
+		NotificationOutbox entry = queued(0);
+		subscribed(false);
+
+		relay().pollOutbox();
+
+		verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
+		assertEquals(List.of(entry.getId()), deleted());
+	}
+
+	@Test
+	void failedSendsComeBackBeforeTheLeaseRunsOut() {
+		NotificationOutbox entry = queued(0);
+		subscribed(true);
+		doThrow(new MessageDeliveryException("broker down"))
+				.when(messagingTemplate).convertAndSendToUser(anyString(), anyString(), any());
+
+		relay().pollOutbox();
+
+		assertEquals(1, entry.getAttempts());
+		assertEquals(OutboxStatus.PENDING, entry.getStatus());
+		assertEquals("broker down", entry.getLastError());
+		assertTrue(entry.getNextAttemptAt().isBefore(LocalDateTime.now().plusSeconds(CLAIM_SECONDS)));
+		verify(outboxRepository).saveAll(List.of(entry));
+		verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+	}
+
+	@Test
+	void givesUpAfterTheLastAttempt() {
+		NotificationOutbox entry = queued(MAX_ATTEMPTS - 1);
+		subscribed(true);
+		doThrow(new MessageDeliveryException("broker down"))
+				.when(messagingTemplate).convertAndSendToUser(anyString(), anyString(), any());
+
+		relay().pollOutbox();
+
+		assertEquals(MAX_ATTEMPTS, entry.getAttempts());
+		assertEquals(OutboxStatus.FAILED, entry.getStatus());
+		verify(outboxRepository).saveAll(List.of(entry));
+	}
+
+	@Test
+	void dropsEntriesWhoseNotificationIsGone() {
+		NotificationOutbox entry = new NotificationOutbox(UUID.randomUUID(), RECIPIENT);
+		entry.setId(UUID.randomUUID());
+		when(outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(eq(OutboxStatus.PENDING), any(), any()))
+				.thenReturn(List.of(entry));
+		when(notificationRepository.findAllById(any())).thenReturn(List.of());
+
+		relay().pollOutbox();
+
+		verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
+		assertEquals(List.of(entry.getId()), deleted());
+	}
+
+	private NotificationOutboxRelay relay() {
+		TransactionTemplate transactions = new TransactionTemplate(mock(PlatformTransactionManager.class));
+		NotificationOutboxRelay relay = new NotificationOutboxRelay(outboxRepository, notificationRepository,
+				messagingTemplate, transactions, Runnable::run, presenceRegistry, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(relay, "batchSize", 100);
+		ReflectionTestUtils.setField(relay, "maxAttempts", MAX_ATTEMPTS);
+		ReflectionTestUtils.setField(relay, "claimSeconds", CLAIM_SECONDS);
+		return relay;
+	}
+
+	private NotificationOutbox queued(int attempts) {
+		Notification notification = new Notification();
+		notification.setId(UUID.randomUUID());
+		notification.setType(NotificationType.BOOKING_CONFIRMED);
+		notification.setTitle("Booking Confirmed!");
+
+		NotificationOutbox entry = new NotificationOutbox(notification.getId(), RECIPIENT);
+		entry.setId(UUID.randomUUID());
+		entry.setAttempts(attempts);
+		when(outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(eq(OutboxStatus.PENDING), any(), any()))
+				.thenReturn(List.of(entry));
+		when(notificationRepository.findAllById(any())).thenReturn(List.of(notification));
+		return entry;
+	}
+
+	private void subscribed(boolean subscribed) {
+		when(presenceRegistry.isSubscribed(RECIPIENT, "/queue/notifications")).thenReturn(subscribed);
+	}
+
+	private Iterable<UUID> deleted() {
+		ArgumentCaptor<Iterable<UUID>> deleted = ArgumentCaptor.captor();
+		verify(outboxRepository).deleteAllByIdInBatch(deleted.capture());
+		return deleted.getValue();
+	}
+}
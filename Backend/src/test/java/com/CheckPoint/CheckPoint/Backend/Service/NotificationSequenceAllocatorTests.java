@@ -0,0 +1,114 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Model.Notification;
+import com.CheckPoint.CheckPoint.Backend.Model.User;
+import com.CheckPoint.CheckPoint.Backend.Repository.NotificationSequenceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationSequenceAllocatorTests {
+
+	private static final UUID FIRST_USER = new UUID(0, 1);
+	private static final UUID SECOND_USER = new UUID(0, 2);
+
+	private final NotificationSequenceRepository repository = mock(NotificationSequenceRepository.class);
+	private final NotificationSequenceAllocator allocator = new NotificationSequenceAllocator(repository);
+
+	@BeforeEach
+	void beginTransaction() {
+		TransactionSynchronizationManager.initSynchronization();
+	}
+
+	@AfterEach
+	void endTransaction() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void numbersEachUsersNotificationsConsecutivelyAtCommit() {
+		Notification first = notification(FIRST_USER);
+		Notification second = notification(FIRST_USER);
+		Notification other = notification(SECOND_USER);
+		when(repository.findLastSequence(FIRST_USER)).thenReturn(12L);
+		when(repository.findLastSequence(SECOND_USER)).thenReturn(1L);
+
+		allocator.assign(first);
+		allocator.assign(other);
+		allocator.assign(second);
+		assertNull(first.getSequence());
+
+		commit();
+
+		assertEquals(11L, first.getSequence());
+		assertEquals(12L, second.getSequence());
+		assertEquals(1L, other.getSequence());
+	}
+
+	@Test
+	void locksCountersInUserIdOrder() {
+		when(repository.findLastSequence(FIRST_USER)).thenReturn(1L);
+		when(repository.findLastSequence(SECOND_USER)).thenReturn(1L);
+
+		allocator.assign(notification(SECOND_USER));
+		allocator.assign(notification(FIRST_USER));
+		commit();
+
+		InOrder locks = inOrder(repository);
+		locks.verify(repository).advance(FIRST_USER, 1);
+		locks.verify(repository).advance(SECOND_USER, 1);
+	}
+
+	@Test
+	void aNotificationAssignedTwiceTakesOneNumber() {
+		Notification notification = notification(FIRST_USER);
+		when(repository.findLastSequence(FIRST_USER)).thenReturn(4L);
+
+		allocator.assign(notification);
+		allocator.assign(notification);
+		commit();
+
+		verify(repository).advance(FIRST_USER, 1);
+		assertEquals(4L, notification.getSequence());
+	}
+
+	@Test
+	void releasesTheTransactionOnceItCompletes() {
+		when(repository.findLastSequence(FIRST_USER)).thenReturn(1L);
+		allocator.assign(notification(FIRST_USER));
+
+		commit();
+
+		assertFalse(TransactionSynchronizationManager.hasResource(allocator));
+	}
+
+	private void commit() {
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+		synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+	}
+
+	private static Notification notification(UUID userId) {
+		User user = new User();
+		user.setId(userId);
+		Notification notification = new Notification();
+		notification.setUser(user);
+		return notification;
+	}
+}
@@ -0,0 +1,116 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.DefaultSimpUserRegistry;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PresenceRegistryTests {
+
+	private static final String NOTIFICATIONS = "/queue/notifications";
+
+	private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+	private final PresenceRegistry registry = new PresenceRegistry(new DefaultSimpUserRegistry(), meters, false);
+	private final Principal alice = new UsernamePasswordAuthenticationToken("alice@checkpoint.test", null);
+
+	@Test
+	void userIsSubscribedOnlyWhileASessionListens() {
+		assertFalse(registry.isOnline("alice@checkpoint.test"));
+
+		registry.onConnected(new SessionConnectedEvent(this, frame(StompCommand.CONNECTED, "s1", null, null), alice));
+		assertTrue(registry.isOnline("alice@checkpoint.test"));
+		assertFalse(registry.isSubscribed("alice@checkpoint.test", NOTIFICATIONS));
+
+		registry.onSubscribe(new SessionSubscribeEvent(this,
+				frame(StompCommand.SUBSCRIBE, "s1", "sub-0", "/user" + NOTIFICATIONS), alice));
+		assertTrue(registry.isSubscribed("alice@checkpoint.test", NOTIFICATIONS));
+		assertFalse(registry.isSubscribed("alice@checkpoint.test", "/queue/location"));
+
+		registry.onUnsubscribe(new SessionUnsubscribeEvent(this,
+				frame(StompCommand.UNSUBSCRIBE, "s1", "sub-0", null), alice));
+		assertFalse(registry.isSubscribed("alice@checkpoint.test", NOTIFICATIONS));
+	}
+
+	@Test
+	void userStaysOnlineUntilTheLastSessionDisconnects() {
+		registry.onSubscribe(new SessionSubscribeEvent(this,
+				frame(StompCommand.SUBSCRIBE, "s1", "sub-0", "/user" + NOTIFICATIONS), alice));
+		registry.onConnected(new SessionConnectedEvent(this, frame(StompCommand.CONNECTED, "s2", null, null), alice));
+		assertEquals(2, registry.stats().sessions());
+		assertEquals(1, registry.stats().users());
+
+		registry.onDisconnect(disconnect("s1"));
+		registry.onDisconnect(disconnect("s1"));
+		assertTrue(registry.isOnline("alice@checkpoint.test"));
+		assertFalse(registry.isSubscribed("alice@checkpoint.test", NOTIFICATIONS));
+
+		registry.onDisconnect(disconnect("s2"));
+		assertFalse(registry.isOnline("alice@checkpoint.test"));
+		assertEquals(0, registry.stats().sessions());
+	}
+
+	@Test
+	void eventsArrivingAfterTheDisconnectDoNotReviveTheSession() {
+		registry.onConnected(new SessionConnectedEvent(this, frame(StompCommand.CONNECTED, "s1", null, null), alice));
+		registry.onDisconnect(disconnect("s1"));
+
+		registry.onConnected(new SessionConnectedEvent(this, frame(StompCommand.CONNECTED, "s1", null, null), alice));
+		registry.onSubscribe(new SessionSubscribeEvent(this,
+				frame(StompCommand.SUBSCRIBE, "s1", "sub-0", "/user" + NOTIFICATIONS), alice));
+		assertFalse(registry.isOnline("alice@checkpoint.test"));
+		assertEquals(0, registry.stats().sessions());
+		assertEquals(0.0, meters.get("websocket.sessions").gauge().value());
+	}
+
+	@Test
+	void countsAnonymousSessionsAndDisconnectsOncePerSession() {
+		registry.onConnected(new SessionConnectedEvent(this, frame(StompCommand.CONNECTED, "s1", null, null), alice));
+		registry.onConnected(new SessionConnectedEvent(this, frame(StompCommand.CONNECTED, "s2", null, null), null));
+		assertEquals(2.0, meters.get("websocket.sessions").gauge().value());
+		assertEquals(1, registry.stats().users());
+
+		registry.onDisconnect(disconnect("s1", CloseStatus.SESSION_NOT_RELIABLE));
+		registry.onDisconnect(disconnect("s1", CloseStatus.SESSION_NOT_RELIABLE));
+		registry.onDisconnect(disconnect("s2"));
+		assertEquals(1.0, meters.get("websocket.sessions.disconnected").tag("reason", "slow_consumer").counter().count());
+		assertEquals(1.0, meters.get("websocket.sessions.disconnected").tag("reason", "other").counter().count());
+		assertEquals(0.0, meters.get("websocket.sessions").gauge().value());
+	}
+
+	private SessionDisconnectEvent disconnect(String sessionId) {
+		return disconnect(sessionId, CloseStatus.NORMAL);
+	}
+
+	private SessionDisconnectEvent disconnect(String sessionId, CloseStatus status) {
+		return new SessionDisconnectEvent(this, frame(StompCommand.DISCONNECT, sessionId, null, null),
+				sessionId, status, alice);
+	}
+
+	private static Message<byte[]> frame(StompCommand command, String sessionId, String subscriptionId,
+			String destination) {
+		StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+		accessor.setSessionId(sessionId);
+		if (subscriptionId != null) {
+			accessor.setSubscriptionId(subscriptionId);
+		}
+		if (destination != null) {
+			accessor.setDestination(destination);
+		}
+		return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+	}
+}
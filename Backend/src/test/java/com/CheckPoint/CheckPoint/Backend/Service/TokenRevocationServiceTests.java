@@ -0,0 +1,81 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Model.RevokedToken;
+import com.CheckPoint.CheckPoint.Backend.Repository.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTests {
+
+	private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+
+	@Test
+	void reportsOnlyRevokedTokens() {
+		TokenRevocationService service = service();
+
+		service.revoke("revoked", UUID.randomUUID(), new Date(System.currentTimeMillis() + 60_000));
+
+		assertTrue(service.isRevoked("revoked"));
+		assertFalse(service.isRevoked("live"));
+		assertFalse(service.isRevoked(null));
+	}
+
+	@Test
+	void loadsLiveRevocationsAtStartup() {
+		when(repository.findByExpiresAtAfter(any()))
+				.thenReturn(List.of(revocation("stored", LocalDateTime.now().plusMinutes(5))));
+
+		TokenRevocationService service = service();
+		service.rebuildFromDatabase();
+
+		assertTrue(service.isRevoked("stored"));
+	}
+
+	@Test
+	void picksUpRevocationsFromOtherNodes() {
+		TokenRevocationService service = service();
+		service.rebuildFromDatabase();
+		when(repository.findByRevokedAtAfterAndExpiresAtAfter(any(), any()))
+				.thenReturn(List.of(revocation("elsewhere", LocalDateTime.now().plusMinutes(5))));
+
+		service.refreshFromDatabase();
+
+		assertTrue(service.isRevoked("elsewhere"));
+	}
+
+	@Test
+	void forgetsRevocationsOnceTheTokenHasExpired() {
+		TokenRevocationService service = service();
+		service.revoke("short", UUID.randomUUID(), new Date(System.currentTimeMillis() + 500));
+		service.revoke("already-expired", UUID.randomUUID(), new Date(System.currentTimeMillis() - 1_000));
+		assertTrue(service.isRevoked("short"));
+		assertFalse(service.isRevoked("already-expired"));
+
+		await().atMost(Duration.ofSeconds(5)).until(() -> {
+			service.trimExpired();
+			return !service.isRevoked("short");
+		});
+	}
+
+	private TokenRevocationService service() {
+		return new TokenRevocationService(repository, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+	}
+
+	private static RevokedToken revocation(String tokenId, LocalDateTime expiresAt) {
+		return new RevokedToken(tokenId, UUID.randomUUID(), expiresAt);
+	}
+}
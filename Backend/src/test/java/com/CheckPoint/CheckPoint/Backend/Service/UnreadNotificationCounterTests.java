@@ -0,0 +1,137 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.DTO.UnreadCountResponse;
+import com.CheckPoint.CheckPoint.Backend.Repository.NotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UnreadNotificationCounterTests {
+
+	private static final String EMAIL = "rider@checkpoint.test";
+	private static final String DESTINATION = "/queue/notifications/unread";
+
+	private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+	private final PresenceRegistry presenceRegistry = mock(PresenceRegistry.class);
+	private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+	private final UUID userId = UUID.randomUUID();
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@AfterEach
+	void endTransaction() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void seedsFromTheDatabaseOnce() {
+		UnreadNotificationCounter counter = counter(false);
+
+		assertEquals(3, counter.get(userId, () -> load(3)));
+		assertEquals(3, counter.get(userId, () -> load(7)));
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void appliesChangesOnlyOnceTheyCommit() {
+		UnreadNotificationCounter counter = counter(false);
+		counter.get(userId, () -> load(3));
+		when(presenceRegistry.isSubscribed(EMAIL, DESTINATION)).thenReturn(true);
+
+		TransactionSynchronizationManager.initSynchronization();
+		counter.adjustAfterCommit(userId, EMAIL, 1);
+		assertEquals(3, counter.get(userId, () -> load(0)));
+
+		commit();
+
+		assertEquals(4, counter.get(userId, () -> load(0)));
+		assertEquals(4, pushed().getUnreadCount());
+	}
+
+	@Test
+	void neverCountsBelowZero() {
+		UnreadNotificationCounter counter = counter(false);
+		counter.get(userId, () -> load(1));
+
+		counter.adjustAfterCommit(userId, EMAIL, -2);
+
+		assertEquals(0, counter.get(userId, () -> load(5)));
+	}
+
+	@Test
+	void doesNotCacheASeedThatAChangeRacedWith() {
+		UnreadNotificationCounter counter = counter(false);
+
+		// The change commits while the count is being read, so the read may have missed it
+		long seeded = counter.get(userId, () -> {
+			counter.adjustAfterCommit(userId, EMAIL, 1);
+			return load(3);
+		});
+
+		assertEquals(3, seeded);
+		assertEquals(4, counter.get(userId, () -> load(4)));
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void resetsToZeroAndSkipsUsersWhoAreNotListening() {
+		UnreadNotificationCounter counter = counter(false);
+		counter.get(userId, () -> load(5));
+
+		counter.resetAfterCommit(userId, EMAIL);
+
+		assertEquals(0, counter.get(userId, () -> load(5)));
+		verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
+	}
+
+	@Test
+	void readsAndPushesFreshCountsBehindTheRelay() {
+		UnreadNotificationCounter counter = counter(true);
+		when(presenceRegistry.isSubscribed(EMAIL, DESTINATION)).thenReturn(true);
+		when(notificationRepository.countByUser_IdAndIsReadFalse(userId)).thenReturn(6L);
+
+		counter.get(userId, () -> load(3));
+		counter.get(userId, () -> load(3));
+		counter.adjustAfterCommit(userId, EMAIL, 1);
+
+		assertEquals(2, loads.get());
+		assertEquals(6, pushed().getUnreadCount());
+	}
+
+	private UnreadNotificationCounter counter(boolean clusterWide) {
+		return new UnreadNotificationCounter(messagingTemplate, presenceRegistry, notificationRepository, 100,
+				clusterWide);
+	}
+
+	private long load(long count) {
+		loads.incrementAndGet();
+		return count;
+	}
+
+	private void commit() {
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	private UnreadCountResponse pushed() {
+		ArgumentCaptor<UnreadCountResponse> pushed = ArgumentCaptor.captor();
+		verify(messagingTemplate).convertAndSendToUser(eq(EMAIL), eq(DESTINATION), pushed.capture());
+		return pushed.getValue();
+	}
+}
@@ -0,0 +1,153 @@
+package com.CheckPoint.CheckPoint.Backend.Service;
+
+import com.CheckPoint.CheckPoint.Backend.Model.User;
+import com.CheckPoint.CheckPoint.Backend.Repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserCacheTests {
+
+	private final UserRepository repository = mock(UserRepository.class);
+
+	@AfterEach
+	void endTransaction() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void servesRepeatLookupsByIdAndEmailFromOneLoad() {
+		User user = stored("rider@checkpoint.test");
+		UserCache cache = cache(30, 10, false);
+
+		cache.getById(user.getId());
+		cache.getById(user.getId());
+		cache.getByEmail(user.getEmail());
+
+		verify(repository).findById(user.getId());
+		verify(repository, never()).findByEmail(any());
+	}
+
+	@Test
+	void handsEveryCallerItsOwnCopy() {
+		User user = stored("rider@checkpoint.test");
+		UserCache cache = cache(30, 10, false);
+
+		User first = cache.getById(user.getId()).orElseThrow();
+		first.setFirstName("Changed");
+		User second = cache.getById(user.getId()).orElseThrow();
+
+		assertNotSame(first, second);
+		assertEquals("Rider", second.getFirstName());
+	}
+
+	@Test
+	void reloadsOnceTheTtlHasPassed() {
+		User user = stored("rider@checkpoint.test");
+		UserCache cache = cache(0, 10, false);
+
+		cache.getById(user.getId());
+		cache.getById(user.getId());
+
+		verify(repository, times(2)).findById(user.getId());
+	}
+
+	@Test
+	void dropsTheLeastRecentlyUsedUserAndItsEmail() {
+		User first = stored("first@checkpoint.test");
+		User second = stored("second@checkpoint.test");
+		User third = stored("third@checkpoint.test");
+		UserCache cache = cache(30, 2, false);
+
+		cache.getById(first.getId());
+		cache.getById(second.getId());
+		cache.getById(first.getId());
+		cache.getById(third.getId());
+
+		cache.getById(first.getId());
+		cache.getByEmail(second.getEmail());
+		verify(repository).findById(first.getId());
+		verify(repository).findByEmail(second.getEmail());
+	}
+
+	@Test
+	void evictsAgainAfterCommit() {
+		User user = stored("rider@checkpoint.test");
+		UserCache cache = cache(30, 10, false);
+		cache.getById(user.getId());
+
+		TransactionSynchronizationManager.initSynchronization();
+		cache.evict(user.getId());
+		// A concurrent request re-caches the row before the update commits
+		cache.getById(user.getId());
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		TransactionSynchronizationManager.clearSynchronization();
+
+		cache.getById(user.getId());
+		verify(repository, times(3)).findById(user.getId());
+	}
+
+	@Test
+	void dropsUsersUpdatedOnOtherNodesBehindTheRelay() {
+		User user = stored("rider@checkpoint.test");
+		UserCache cache = cache(30, 10, true);
+		cache.getById(user.getId());
+		when(repository.findIdsUpdatedAfter(any())).thenReturn(List.of(user.getId()));
+
+		cache.evictUpdatedElsewhere();
+		cache.getById(user.getId());
+
+		verify(repository, times(2)).findById(user.getId());
+	}
+
+	@Test
+	void doesNotPollOnASingleNode() {
+		cache(30, 10, false).evictUpdatedElsewhere();
+
+		verify(repository, never()).findIdsUpdatedAfter(any());
+	}
+
+	@Test
+	void reportsAccountStateWithoutALockedOrDisabledUserBeingUsable() {
+		User user = stored("rider@checkpoint.test");
+		user.setTokenVersion(3);
+		user.setAccountNonLocked(false);
+
+		UserCache.AccountState state = cache(30, 10, false).getAccountState(user.getId()).orElseThrow();
+
+		assertEquals(new UserCache.AccountState("rider@checkpoint.test", 3, false), state);
+		assertFalse(cache(30, 10, false).getAccountState(UUID.randomUUID()).isPresent());
+	}
+
+	private UserCache cache(long ttlSeconds, int maxSize, boolean clusterWide) {
+		return new UserCache(repository, new SimpleMeterRegistry(), ttlSeconds, maxSize, clusterWide);
+	}
+
+	private User stored(String email) {
+		User user = new User();
+		user.setId(UUID.randomUUID());
+		user.setEmail(email);
+		user.setFirstName("Rider");
+		when(repository.findById(user.getId())).thenReturn(Optional.of(user));
+		when(repository.findByEmail(email)).thenReturn(Optional.of(user));
+		return user;
+	}
+}